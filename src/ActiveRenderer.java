@@ -0,0 +1,214 @@
+/**
+ File Name: ActiveRenderer.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class draws the simulation onto a Canvas from its own thread at a target frame rate, instead of
+ asking Swing to repaint after every step. Frames are drawn into the back buffer of a BufferStrategy, which uses
+ accelerated VolatileImage buffers when the graphics card allows it, and then shown. Each frame draws the newest
+ render snapshot. If a buffer strategy cannot be created the canvas hides itself so Swing painting can be used instead.
+ */
+
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.ImageCapabilities;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+@SuppressWarnings("serial")
+public class ActiveRenderer extends Canvas implements Runnable {
+
+    /* FIELDS */
+    private static final int DEFAULT_FPS = 60; // class field: frames shown per second unless changed
+    private static final int NUM_BUFFERS = 2; // class field: the front buffer and one back buffer
+    private static final double AVERAGE_WEIGHT = 0.1; // class field: weight of the newest frame in the average time
+    private BodyManager bodyManager; // instance field: draws the bodies
+    private ParticleManager particleManager; // instance field: draws the particles
+    private RenderBuffer renderBuffer; // instance field: the snapshots to draw
+    private Thread renderer; // instance field: the thread drawing the frames
+    private volatile boolean running; // instance field: whether frames are being drawn
+    private volatile int targetFps; // instance field: frames shown per second
+    private long lastFrameNanos; // instance field: time taken to draw the last frame
+    private double averageFrameNanos; // instance field: running average of the time taken to draw a frame
+
+    /* ACCESSORS */
+
+    /**
+     * @return whether frames are being drawn
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return frames shown per second
+     */
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * @return time taken to draw the last frame, in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * @return running average of the time taken to draw a frame, in nanoseconds
+     */
+    public double getAverageFrameNanos() {
+        return averageFrameNanos;
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param targetFps frames shown per second
+     */
+    public void setTargetFps(int targetFps) {
+        if (targetFps < 1) {
+            throw new IllegalArgumentException("target frame rate must be positive: " + targetFps);
+        }
+        this.targetFps = targetFps;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * ActiveRenderer: Creates a canvas that draws the snapshots in a render
+     * buffer once it is shown
+     *
+     * @param bodyManager     draws the bodies
+     * @param particleManager draws the particles
+     * @param renderBuffer    the snapshots to draw
+     */
+    public ActiveRenderer(BodyManager bodyManager, ParticleManager particleManager, RenderBuffer renderBuffer) {
+        this.bodyManager = bodyManager;
+        this.particleManager = particleManager;
+        this.renderBuffer = renderBuffer;
+        this.targetFps = DEFAULT_FPS;
+        setBackground(Color.BLACK);
+        // frames are drawn by the render thread, so repaint requests are not needed
+        setIgnoreRepaint(true);
+    }
+
+    /* METHODS */
+
+    /**
+     * addNotify: Starts drawing once the canvas can be shown
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        start();
+    }
+
+    /**
+     * removeNotify: Stops drawing before the canvas is taken off the screen
+     */
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    /**
+     * start: Creates the buffer strategy and starts the render thread. If no
+     * buffer strategy can be created the canvas is hidden and not started.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        try {
+            try {
+                createBufferStrategy(NUM_BUFFERS, new BufferCapabilities(new ImageCapabilities(true),
+                        new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED));
+            } catch (AWTException e) {
+                // accelerated buffers are not available, so take the best there is
+                createBufferStrategy(NUM_BUFFERS);
+            }
+        } catch (RuntimeException e) {
+            setVisible(false);
+            return;
+        }
+        running = true;
+        renderer = new Thread(this, "renderer");
+        renderer.setDaemon(true);
+        renderer.start();
+    }
+
+    /**
+     * stop: Stops the render thread and waits for it to finish its frame
+     */
+    public void stop() {
+        running = false;
+        if (renderer != null && renderer != Thread.currentThread()) {
+            try {
+                renderer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        renderer = null;
+    }
+
+    /**
+     * run: Draws frames at the target rate until stopped. If a frame takes too
+     * long the next one is drawn straight away, without trying to catch up.
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            long start = System.nanoTime();
+            renderFrame();
+            lastFrameNanos = System.nanoTime() - start;
+            averageFrameNanos = averageFrameNanos == 0 ? lastFrameNanos
+                    : averageFrameNanos + AVERAGE_WEIGHT * (lastFrameNanos - averageFrameNanos);
+
+            next += 1000000000L / targetFps;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * renderFrame: Draws the newest snapshot into the back buffer and shows it.
+     * The frame is drawn again if the buffer was lost while drawing.
+     */
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            return;
+        }
+        RenderSnapshot snapshot = renderBuffer.acquire();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    bodyManager.drawBodies(g, snapshot);
+                    particleManager.drawParticles(g, snapshot);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+}
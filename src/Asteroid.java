@@ -3,7 +3,6 @@
  @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
  Date: January 17, 2022
  Description: This class represents an Asteroid celestial body and stores all corresponding information.
- Contains Triangle class for shattering effect.
  */
 
 import java.awt.Graphics;
@@ -80,56 +79,20 @@ public class Asteroid extends ConvexPolygon {
     }
 
     /**
-     * shatter: Shatters (breaks apart) Asteroid
+     * shatter: Shatters (breaks apart) Asteroid into the fragments given by the
+     * fracture engine of the BodyManager
      *
      * @author Samuel
      * @param bm the BodyManager object
      */
     public void shatter(BodyManager bm) {
 
-        Vec[] vertices = this.getVertices();
+        ArrayList<Vec[]> fragments = bm.getFractureEngine().fracture(this.getVertices());
 
-        // generate super triangle
-        double minx = Double.POSITIVE_INFINITY, miny = Double.POSITIVE_INFINITY;
-        double maxx = Double.NEGATIVE_INFINITY, maxy = Double.NEGATIVE_INFINITY;
-
-        for (Vec v : vertices) {
-            minx = Math.min(minx, v.getX());
-            miny = Math.min(minx, v.getY());
-            maxx = Math.max(maxx, v.getX());
-            maxy = Math.max(maxx, v.getY());
-        }
-
-        double dx = (maxx - minx) * 10;
-        double dy = (maxy - miny) * 10;
-
-        Vec v0 = new Vec(minx - dx, miny - dy * 3);
-        Vec v1 = new Vec(minx - dx, maxy + dy);
-        Vec v2 = new Vec(maxx + dx * 3, maxy + dy);
-
-        Triangle st = new Triangle(v0, v1, v2);
-
-        // create ArrayList of triangles
-        ArrayList<Triangle> triangles = new ArrayList<Triangle>();
-
-        // start with the super triangle in the ArrayList
-        triangles.add(st);
-
-        // add the vertices one by one
-        for (Vec vertex : vertices) {
-            triangles = addVertex(vertex, triangles);
-        }
-
-        // if the vertices are not part of the super triangle, then it is a fragment
-        for (Triangle tri : triangles) {
-            if (!(tri.v0.equals(st.v0) || tri.v0.equals(st.v1) || tri.v0.equals(st.v2) || tri.v1.equals(st.v0)
-                    || tri.v1.equals(st.v1) || tri.v1.equals(st.v2) || tri.v2.equals(st.v0) || tri.v2.equals(st.v1)
-                    || tri.v2.equals(st.v2))) {
-
-                // create new asteroid
-                bm.addAsteroid(null, new Vec(pos), Math.abs(density * tri.getArea()), isStatic, resolveCollisions,
-                        new Vec(vel), 0, angle, angularVelocity, tri.getVertices());
-            }
+        // create a new asteroid for each fragment, keeping the density
+        for (Vec[] fragment : fragments) {
+            bm.addAsteroid(null, new Vec(pos), density * getArea(fragment), isStatic, resolveCollisions,
+                    new Vec(vel), 0, angle, angularVelocity, fragment);
         }
 
         // destroy the original asteroid
@@ -137,78 +100,21 @@ public class Asteroid extends ConvexPolygon {
     }
 
     /**
-     * getUniqueEdges: Retrieves unique edges out of an array with edges that are
-     * not unique
+     * getArea: Calculates the area of a fragment
      *
-     * @author Samuel
-     * @param edges the ArrayList of edge
-     * @return edges a new ArrayList of unique edges
+     * @param vertices the vertices of the fragment
+     * @return area
      */
-    private static ArrayList<Vec[]> getUniqueEdges(ArrayList<Vec[]> edges) {
-
-        // create new unique edges ArrayList
-        ArrayList<Vec[]> uniqueEdges = new ArrayList<Vec[]>();
-
-        // loop through all the edges
-        for (int i = 0; i < edges.size(); i++) {
-
-            boolean isUnique = true;
-
-            // loop through all the other edges and if none of them are equal to this, then
-            // the edge is unique
-            for (int j = 0; j < edges.size() && isUnique; j++) {
-                if (i != j && ((edges.get(i)[0].equals(edges.get(j)[0]) && edges.get(i)[1].equals(edges.get(j)[1]))
-                        || (edges.get(i)[1].equals(edges.get(j)[0]) && edges.get(i)[0].equals(edges.get(j)[1])))) {
-
-                    isUnique = false;
-
-                }
-            }
-
-            // add the unique edge to the ArrayList
-            if (isUnique) {
-                uniqueEdges.add(edges.get(i));
-            }
+    private static double getArea(Vec[] vertices) {
+        double sum = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            Vec a = vertices[i];
+            Vec b = vertices[(i + 1) % vertices.length];
+            sum += a.getX() * b.getY() - b.getX() * a.getY();
         }
-
-        return uniqueEdges;
+        return Math.abs(sum) / 2;
     }
 
-    /**
-     * addVertex: adds vertex and updates the ArrayList of triangles
-     *
-     * @author Samuel
-     * @param vertex    the position of the vertiex
-     * @param triangles the ArrayList storing all the current triangles
-     * @return ArrayList<Triangle> an updated ArrayList of triangles
-     */
-    private static ArrayList<Triangle> addVertex(Vec vertex, ArrayList<Triangle> triangles) {
-        ArrayList<Vec[]> edges = new ArrayList<Vec[]>();
-
-        ArrayList<Triangle> newTriangles = new ArrayList<Triangle>();
-
-        // Remove triangles with circumcircles containing the vertex
-        for (Triangle tri : triangles) {
-            if (tri.inCircumcircle(vertex)) {
-                edges.add(new Vec[] { new Vec(tri.v0), new Vec(tri.v1) });
-                edges.add(new Vec[] { new Vec(tri.v1), new Vec(tri.v2) });
-                edges.add(new Vec[] { new Vec(tri.v2), new Vec(tri.v0) });
-            } else {
-                newTriangles.add(tri);
-            }
-        }
-
-        // Get unique edges
-        edges = getUniqueEdges(edges);
-
-        // Create new triangles from the unique edges and new vertex
-        for (Vec[] edge : edges) {
-            newTriangles.add(new Triangle(edge[0], edge[1], vertex));
-        }
-
-        return newTriangles;
-    };
-
     /**
      * onCollide: Shatters Asteroid on collision
      *
@@ -224,84 +130,4 @@ public class Asteroid extends ConvexPolygon {
         }
     }
 
-    /**
-     * Triangle: This class represents a Triangle using vectors and stores
-     * associated information
-     *
-     * @author Samuel Ho
-     */
-    private static class Triangle {
-
-        /* FIELDS */
-        private Vec v0; // instance field: first vertex of Triangle
-        private Vec v1; // instance field: second vertex of Triangle
-        private Vec v2; // instance field: third vertex of Triangle
-        private Vec circumcenter; // instance field: circumcenter of Triangle
-        private double circumradius; // instance field: circumradius of Triangle
-
-        /* CONSTRUCTOR */
-
-        /**
-         * Triangle: Constructor that creates new Triangle object with given vertices
-         *
-         * @param v0 first vertex
-         * @param v1 second vertex
-         * @param v2 third vertex
-         */
-        private Triangle(Vec v0, Vec v1, Vec v2) {
-            this.v0 = new Vec(v0);
-            this.v1 = new Vec(v1);
-            this.v2 = new Vec(v2);
-
-            //calculate circumcenter
-            Vec cp = v2.getSub(v0);
-            Vec bp = v1.getSub(v0);
-            double bx = bp.getX();
-            double by = bp.getY();
-            double cx = cp.getX();
-            double cy = cp.getY();
-            double dp = 2 * (bx * cy - by * cx);
-            Vec u = new Vec((cp.getY() * bp.getLengthSq() - bp.getY() * cp.getLengthSq()) / dp,
-                    (bp.getX() * cp.getLengthSq() - cp.getX() * bp.getLengthSq()) / dp);
-            this.circumcenter = u.getAdd(v0);
-            this.circumradius = u.getLength();
-        }
-
-        /**
-         * inCircumcircle: checks if a point is inside the circumcircle
-         *
-         * @param v the point
-         * @return true if it is in the circumcircle and false otherwise
-         */
-        private boolean inCircumcircle(Vec v) {
-            return (this.circumcenter.getSub(v)).getLength() <= this.circumradius;
-        }
-
-        /**
-         * getArea: Calculates area of Triangle
-         *
-         * @return area
-         */
-        private double getArea() {
-            return (v1.getX() - v0.getX()) * (v1.getY() + v0.getY()) + (v2.getX() - v1.getX()) * (v2.getY() + v1.getY())
-                    + (v0.getX() - v2.getX()) * (v0.getY() + v2.getY());
-        }
-
-        /**
-         * getVertices: Retrieves vertices of Triangle
-         *
-         * @return Vec[] array of Vec representing vertices
-         */
-        private Vec[] getVertices() {
-            double sum = getArea();
-
-            //ensures that the vertices are in the right order
-            if (sum >= 0) {
-                return new Vec[] { new Vec(v0), new Vec(v1), new Vec(v2) };
-            } else {
-                return new Vec[] { new Vec(v2), new Vec(v1), new Vec(v0) };
-            }
-        }
-    }
-
 }
\ No newline at end of file
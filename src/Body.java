@@ -1,3 +1,4 @@
+import java.awt.Color;
 import java.awt.Graphics;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,12 +38,20 @@ public abstract class Body {
     protected boolean resolveCollisions;
     protected HashMap<Body, Integer> collisions;
     protected String name;
+    private BodyManager manager; // the manager this body is in, told when its properties change
     protected int age;
     protected double area;
     protected boolean destroyed;
 
     /* ACCESSORS & MUTATORS */
 
+    /**
+     * @return the maximum speed a body can have along each axis
+     */
+    public static int getMaxSpeed() {
+        return MAX_SPEED;
+    }
+
     /**
      * @return the resolveCollisions
      */
@@ -83,6 +92,7 @@ public abstract class Body {
      */
     public void setAge(int age) {
         this.age = age;
+        propertiesChanged();
     }
 
     /**
@@ -97,6 +107,7 @@ public abstract class Body {
      */
     public void setArea(double area) {
         this.area = area;
+        propertiesChanged();
     }
 
     /**
@@ -283,7 +294,25 @@ public abstract class Body {
      * @param name the name to set
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        if (manager != null) {
+            manager.bodyRenamed(this, oldName);
+        }
+    }
+
+    /**
+     * @return the manager this body is in, or null
+     */
+    public BodyManager getManager() {
+        return manager;
+    }
+
+    /**
+     * @param manager the manager this body is in
+     */
+    public void setManager(BodyManager manager) {
+        this.manager = manager;
     }
 
     /**
@@ -375,6 +404,14 @@ public abstract class Body {
      */
     public abstract double[] getMaxMin();
 
+    /**
+     * getMaxMin: This method stores the maximum and minimum x/y values of this
+     * body in an array, so callers that run every step do not allocate.
+     *
+     * @param out an array of at least 4 values, set to [min x, max x, min y, max y]
+     */
+    public abstract void getMaxMin(double[] out);
+
     /**
      * draw: Draws the body onto the screen.
      *
@@ -382,6 +419,21 @@ public abstract class Body {
      */
     public abstract void draw(Graphics g);
 
+    /**
+     * getColor: Retrieves the colour the body is drawn with.
+     *
+     * @return the colour
+     */
+    public abstract Color getColor();
+
+    /**
+     * addToSnapshot: Adds the shape, position and colour of the body to a render
+     * snapshot, so it can be drawn later without reading the body.
+     *
+     * @param snapshot the snapshot being filled
+     */
+    public abstract void addToSnapshot(RenderSnapshot snapshot);
+
     /**
      * applyImpulse: Applies an impulse on the body.
      *
@@ -390,11 +442,24 @@ public abstract class Body {
      */
     public void applyImpulse(Vec impulse, Vec radius) {
         if (!isStatic) {
-            vel.add(impulse.getMult(invMass));
             angularVelocity += 1.0 / inertia * Vec.cross(radius, impulse);
             angularVelocity = Math.max(-MAX_SPEED, Math.min(MAX_SPEED, angularVelocity));
-            vel = new Vec(Math.max(-MAX_SPEED, Math.min(MAX_SPEED, vel.getX())),
-                    Math.max(-MAX_SPEED, Math.min(MAX_SPEED, vel.getY())));
+            applyImpulse(impulse.getX(), impulse.getY());
+        }
+    }
+
+    /**
+     * applyImpulse: Applies an impulse through the center of the body, so it
+     * does not change the angular velocity.
+     *
+     * @param impulseX the x component of the impulse
+     * @param impulseY the y component of the impulse
+     */
+    public void applyImpulse(double impulseX, double impulseY) {
+        if (!isStatic) {
+            double x = vel.getX() + impulseX * invMass;
+            double y = vel.getY() + impulseY * invMass;
+            vel.set(Math.max(-MAX_SPEED, Math.min(MAX_SPEED, x)), Math.max(-MAX_SPEED, Math.min(MAX_SPEED, y)));
         }
     }
 
@@ -419,7 +484,7 @@ public abstract class Body {
                 rotate(angularVelocity);
             }
         } else {
-            vel = new Vec(0, 0);
+            vel.setZero();
             angularVelocity = 0;
         }
 
@@ -431,7 +496,7 @@ public abstract class Body {
 
         // merge bodies if two bodies have been touching for long enough
         for (Map.Entry<Body, Integer> ent : collisions.entrySet()) {
-            if (ent.getValue() > MERGE_TIME && !ent.getKey().isDestroyed()) {
+            if (ent.getValue() > MERGE_TIME && !ent.getKey().isDestroyed() && !this.isDestroyed()) {
                 merge(ent.getKey(), bm, pm);
             }
         }
@@ -450,6 +515,17 @@ public abstract class Body {
             this.invMass = 0;
             this.invInertia = 0;
         }
+        propertiesChanged();
+    }
+
+    /**
+     * propertiesChanged: Tells the manager of this body that a property it keeps
+     * track of, such as the area or the age, has changed.
+     */
+    protected void propertiesChanged() {
+        if (manager != null) {
+            manager.bodyChanged(this);
+        }
     }
 
     /**
@@ -463,13 +539,22 @@ public abstract class Body {
     }
 
     /**
-     * destroy: destroys this Body
+     * destroy: destroys this Body. The BodyManager removes it, and removes its
+     * collisions, at the end of the step.
      */
     public void destroy() {
+        this.destroyed = true;
+    }
+
+    /**
+     * removeCollisions: removes this Body from the collisions of every body it
+     * is colliding with
+     */
+    public void removeCollisions() {
         for (Body key : collisions.keySet()) {
             key.collisions.remove(this);
         }
-        this.destroyed = true;
+        collisions.clear();
     }
 
     /**
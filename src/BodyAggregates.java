@@ -0,0 +1,260 @@
+/**
+ * File Name: BodyAggregates.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class keeps running counts, sums, and smallest and largest values of the areas and ages of the
+ * bodies, for all bodies and for each type of body. It is updated when bodies are added, removed or changed, so the
+ * statistics can be read at any time without looking through the bodies.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+public class BodyAggregates {
+
+    /* FIELDS */
+
+    private Group all; // instance field: the statistics of every body
+    private HashMap<Class<?>, Group> groups; // instance field: the statistics of each type of body
+    private HashMap<Body, double[]> recorded; // instance field: the area and age each body was counted with
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyAggregates: Constructor that creates empty aggregates
+     */
+    public BodyAggregates() {
+        all = new Group();
+        groups = new HashMap<Class<?>, Group>();
+        recorded = new HashMap<Body, double[]>();
+    }
+
+    /* METHODS */
+
+    /**
+     * getCount: Retrieves the number of bodies
+     *
+     * @return the number of bodies
+     */
+    public synchronized int getCount() {
+        return all.count;
+    }
+
+    /**
+     * getCount: Retrieves the number of bodies of a type
+     *
+     * @param type the type of body, such as Planet.class
+     * @return the number of bodies of the type
+     */
+    public synchronized int getCount(Class<? extends Body> type) {
+        Group group = groups.get(type);
+        return group == null ? 0 : group.count;
+    }
+
+    /**
+     * getAverageArea: Calculates the average area of the bodies
+     *
+     * @return the average area, or NaN if there are no bodies
+     */
+    public synchronized double getAverageArea() {
+        return all.totalArea / all.count;
+    }
+
+    /**
+     * getAverageAge: Calculates the average age of the bodies
+     *
+     * @return the average age, or NaN if there are no bodies
+     */
+    public synchronized double getAverageAge() {
+        return all.totalAge / all.count;
+    }
+
+    /**
+     * getStats: Retrieves the statistics of every body
+     *
+     * @return the statistics
+     */
+    public synchronized BodyStats getStats() {
+        return all.toStats();
+    }
+
+    /**
+     * getStats: Retrieves the statistics of the bodies of a type
+     *
+     * @param type the type of body, such as Planet.class
+     * @return the statistics
+     */
+    public synchronized BodyStats getStats(Class<? extends Body> type) {
+        Group group = groups.get(type);
+        return group == null ? new Group().toStats() : group.toStats();
+    }
+
+    /**
+     * add: Counts a body
+     *
+     * @param body the body to add
+     */
+    public synchronized void add(Body body) {
+        if (recorded.containsKey(body)) {
+            return;
+        }
+        double[] values = { body.getArea(), body.getAge() };
+        recorded.put(body, values);
+        all.add(values[0], (int) values[1]);
+        groupOf(body).add(values[0], (int) values[1]);
+    }
+
+    /**
+     * remove: Stops counting a body
+     *
+     * @param body the body to remove
+     */
+    public synchronized void remove(Body body) {
+        double[] values = recorded.remove(body);
+        if (values != null) {
+            all.remove(values[0], (int) values[1]);
+            groupOf(body).remove(values[0], (int) values[1]);
+        }
+    }
+
+    /**
+     * update: Counts a body again after its area or age has changed
+     *
+     * @param body the body that changed
+     */
+    public synchronized void update(Body body) {
+        double[] values = recorded.get(body);
+        if (values == null || (values[0] == body.getArea() && values[1] == body.getAge())) {
+            return;
+        }
+        Group group = groupOf(body);
+        all.remove(values[0], (int) values[1]);
+        group.remove(values[0], (int) values[1]);
+        values[0] = body.getArea();
+        values[1] = body.getAge();
+        all.add(values[0], (int) values[1]);
+        group.add(values[0], (int) values[1]);
+    }
+
+    /**
+     * rebuild: Replaces the contents of the aggregates with a list of bodies
+     *
+     * @param bodies the bodies to count
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        all = new Group();
+        groups.clear();
+        recorded.clear();
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i) != null) {
+                add(bodies.get(i));
+            }
+        }
+    }
+
+    /**
+     * groupOf: Retrieves the statistics of the type of a body, creating them if
+     * needed
+     *
+     * @param body the body
+     * @return the statistics of its type
+     */
+    private Group groupOf(Body body) {
+        Group group = groups.get(body.getClass());
+        if (group == null) {
+            group = new Group();
+            groups.put(body.getClass(), group);
+        }
+        return group;
+    }
+
+    /**
+     * Group: This class stores the running statistics of a group of bodies. The
+     * areas and ages are also kept sorted with their counts, so that the smallest
+     * and largest are still known after a body is removed.
+     */
+    private static class Group {
+
+        /* FIELDS */
+        private int count; // instance field: the number of bodies
+        private double totalArea; // instance field: the sum of the areas
+        private double totalAge; // instance field: the sum of the ages
+        private TreeMap<Double, Integer> areas; // instance field: how many bodies have each area
+        private TreeMap<Integer, Integer> ages; // instance field: how many bodies have each age
+
+        /* CONSTRUCTORS */
+
+        /**
+         * Group: Constructor that creates an empty group
+         */
+        private Group() {
+            areas = new TreeMap<Double, Integer>();
+            ages = new TreeMap<Integer, Integer>();
+        }
+
+        /* METHODS */
+
+        /**
+         * add: Counts a body
+         *
+         * @param area the area of the body
+         * @param age  the age of the body
+         */
+        private void add(double area, int age) {
+            count++;
+            totalArea += area;
+            totalAge += age;
+            Integer areaCount = areas.get(area);
+            areas.put(area, areaCount == null ? 1 : areaCount + 1);
+            Integer ageCount = ages.get(age);
+            ages.put(age, ageCount == null ? 1 : ageCount + 1);
+        }
+
+        /**
+         * remove: Stops counting a body
+         *
+         * @param area the area the body was counted with
+         * @param age  the age the body was counted with
+         */
+        private void remove(double area, int age) {
+            count--;
+            if (count == 0) {
+                // start again from exactly zero so rounding errors do not build up
+                totalArea = 0;
+                totalAge = 0;
+                areas.clear();
+                ages.clear();
+                return;
+            }
+            totalArea -= area;
+            totalAge -= age;
+            Integer areaCount = areas.get(area);
+            if (areaCount != null && areaCount > 1) {
+                areas.put(area, areaCount - 1);
+            } else {
+                areas.remove(area);
+            }
+            Integer ageCount = ages.get(age);
+            if (ageCount != null && ageCount > 1) {
+                ages.put(age, ageCount - 1);
+            } else {
+                ages.remove(age);
+            }
+        }
+
+        /**
+         * toStats: Copies the statistics of the group
+         *
+         * @return the statistics
+         */
+        private BodyStats toStats() {
+            if (count == 0) {
+                return new BodyStats(0, 0, Double.NaN, Double.NaN, 0, 0, 0);
+            }
+            return new BodyStats(count, totalArea, areas.firstKey(), areas.lastKey(), totalAge, ages.firstKey(),
+                    ages.lastKey());
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ * File Name: BodyCommandBuffer.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class records the bodies spawned while the BodyManager is stepping, so that the list of bodies
+ * is not changed while it is being iterated. The recorded bodies are added in one batch at the end of the step.
+ */
+
+import java.util.ArrayList;
+
+public class BodyCommandBuffer {
+
+    /* FIELDS */
+
+    private ArrayList<Body> spawns; // instance field: bodies waiting to be added, in the order they were spawned
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of bodies waiting to be added
+     */
+    public synchronized int getNumSpawns() {
+        return spawns.size();
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyCommandBuffer: Constructor that creates an empty command buffer
+     */
+    public BodyCommandBuffer() {
+        spawns = new ArrayList<Body>();
+    }
+
+    /* METHODS */
+
+    /**
+     * spawn: Records a body to be added at the end of the step
+     *
+     * @param body the body to add
+     */
+    public synchronized void spawn(Body body) {
+        spawns.add(body);
+    }
+
+    /**
+     * flush: Adds every recorded body to the end of the list of bodies, keeping
+     * the order they were spawned in, and clears the buffer
+     *
+     * @param bodies the list of bodies
+     * @return the number of bodies added
+     */
+    public synchronized int flush(ArrayList<Body> bodies) {
+        int count = spawns.size();
+        bodies.addAll(spawns);
+        spawns.clear();
+        return count;
+    }
+
+}
@@ -1,6 +1,5 @@
 import java.awt.Graphics;
 import java.util.ArrayList;
-import java.util.Iterator;
 
 /**
  * File Name: BodyManager.java
@@ -13,14 +12,33 @@ public class BodyManager {
 
     /* FIELDS */
 
-    private static final int COLLISION_ITERATIONS = 100;
+    private static final int COLLISION_ITERATIONS = 20;
+    private static final int POSITION_ITERATIONS = 5;
     private static final double GRAVITY_CONSTANT = 0.05;
     private static final double DISTANCE_THRESHOLD = 100;
     private static final double AREA_THRESHOLD = 3000;
 
-    private int numBodies;
     private ArrayList<Body> bodies;
     private ParticleManager particleManager;
+    private ContactSolver contactSolver;
+    private FractureEngine fractureEngine; // breaks shattering asteroids into fragments
+    private CollisionPool collisionPool; // detectors and resolvers reused every step
+    private ArrayList<CollisionResolver> cols; // the collisions found this step
+    private BodyTree bodyTree; // finds the bodies hit by rays and moving circles
+    private boolean bodyTreeOutdated; // whether bodies have moved since the tree last checked their boxes
+    private BodyCommandBuffer commandBuffer;
+    private BodyNameIndex nameIndex; // finds bodies by name
+    private BodyRankings rankings; // finds the largest, most populated, oldest and fastest bodies
+    private BodyAggregates aggregates; // running counts, sums and ranges of the areas and ages
+    private OrbitIndex orbitIndex; // which planets orbit each star and which moons orbit each planet
+    private OrderedBodyIndex ageIndex; // the bodies sorted by age
+    private OrderedBodyIndex areaIndex; // the bodies sorted by area
+    private RoutePlanner routePlanner; // finds the shortest paths between planets
+    private volatile boolean stepping; // whether updateBodies is running
+    private int[] drawX, drawY; // screen coordinates reused for drawing polygons
+    private SpriteCache spriteCache; // images of circles reused for drawing
+    private boolean useSpriteCache; // whether circles are drawn from the sprite cache instead of filled
+    private DensityRenderer densityRenderer; // draws the bodies too small to draw one by one
 
     /* ACCESSORS */
 
@@ -31,6 +49,13 @@ public class BodyManager {
         return COLLISION_ITERATIONS;
     }
 
+    /**
+     * @return position correction iterations constant
+     */
+    public static int getPositionIterations() {
+        return POSITION_ITERATIONS;
+    }
+
     /**
      * @return gravity constant
      */
@@ -53,10 +78,25 @@ public class BodyManager {
     }
 
     /**
-     * @return number of bodies
+     * @return number of bodies, which always matches the list of bodies
      */
     public int getNumBodies() {
-        return numBodies;
+        return aggregates.getCount();
+    }
+
+    /**
+     * @return the statistics of every body
+     */
+    public BodyStats getStats() {
+        return aggregates.getStats();
+    }
+
+    /**
+     * @param type the type of body, such as Planet.class
+     * @return the statistics of the bodies of the type
+     */
+    public BodyStats getStats(Class<? extends Body> type) {
+        return aggregates.getStats(type);
     }
 
     /**
@@ -73,15 +113,65 @@ public class BodyManager {
         return particleManager;
     }
 
-    /* MUTATORS */
+    /**
+     * @return the index of which planets orbit each star and which moons orbit
+     *         each planet
+     */
+    public OrbitIndex getOrbitIndex() {
+        return orbitIndex;
+    }
+
+    /**
+     * @return the index of the bodies sorted by age
+     */
+    public OrderedBodyIndex getAgeIndex() {
+        return ageIndex;
+    }
+
+    /**
+     * @return the index of the bodies sorted by area
+     */
+    public OrderedBodyIndex getAreaIndex() {
+        return areaIndex;
+    }
+
+    /**
+     * @return the images of circles reused for drawing
+     */
+    public SpriteCache getSpriteCache() {
+        return spriteCache;
+    }
+
+    /**
+     * @return whether circles are drawn from the sprite cache instead of filled
+     */
+    public boolean isUseSpriteCache() {
+        return useSpriteCache;
+    }
+
+    /**
+     * @return the renderer of the bodies too small to draw one by one
+     */
+    public DensityRenderer getDensityRenderer() {
+        return densityRenderer;
+    }
 
     /**
-     * @param numBodies the number of bodies to set
+     * @return the fracture engine used to shatter asteroids
      */
-    public void setNumBodies(int numBodies) {
-        this.numBodies = numBodies;
+    public FractureEngine getFractureEngine() {
+        return fractureEngine;
     }
 
+    /**
+     * @return whether penetration is resolved separately from the velocities
+     */
+    public boolean isSplitImpulse() {
+        return contactSolver.isSplitImpulse();
+    }
+
+    /* MUTATORS */
+
     /**
      * @param particleManager the particle manager to set
      */
@@ -89,11 +179,46 @@ public class BodyManager {
         this.particleManager = particleManager;
     }
 
+    /**
+     * @param splitImpulse whether penetration is resolved separately from the
+     *                     velocities
+     */
+    public void setSplitImpulse(boolean splitImpulse) {
+        contactSolver.setSplitImpulse(splitImpulse);
+    }
+
+    /**
+     * @param useSpriteCache whether circles are drawn from the sprite cache
+     *                       instead of filled. Off by default, since copying the
+     *                       sprites was slower than filling in the software
+     *                       pipeline.
+     */
+    public void setUseSpriteCache(boolean useSpriteCache) {
+        this.useSpriteCache = useSpriteCache;
+    }
+
     /**
      * @param bodies the bodies to set
      */
     public void setBodies(ArrayList<Body> bodies) {
+        if (this.bodies != null) {
+            for (int i = 0; i < this.bodies.size(); i++) {
+                this.bodies.get(i).setManager(null);
+            }
+        }
         this.bodies = bodies;
+        this.bodyTree.rebuild(bodies);
+        this.bodyTreeOutdated = false;
+        this.nameIndex.rebuild(bodies);
+        this.rankings.rebuild(bodies);
+        this.aggregates.rebuild(bodies);
+        this.orbitIndex.rebuild(bodies);
+        this.ageIndex.rebuild(bodies);
+        this.areaIndex.rebuild(bodies);
+        this.routePlanner.rebuild(bodies);
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).setManager(this);
+        }
     }
 
     /* CONSTRUCTORS */
@@ -106,23 +231,89 @@ public class BodyManager {
      * @param particleManager associated particle manager
      */
     public BodyManager(ParticleManager particleManager) {
-        numBodies = 0;
         this.bodies = new ArrayList<Body>();
         this.particleManager = particleManager;
+        this.contactSolver = new ContactSolver();
+        this.fractureEngine = new FractureEngine();
+        this.collisionPool = new CollisionPool();
+        this.cols = new ArrayList<CollisionResolver>();
+        this.bodyTree = new BodyTree();
+        this.bodyTreeOutdated = false;
+        this.commandBuffer = new BodyCommandBuffer();
+        this.nameIndex = new BodyNameIndex();
+        this.rankings = new BodyRankings();
+        this.aggregates = new BodyAggregates();
+        this.orbitIndex = new OrbitIndex(nameIndex);
+        this.ageIndex = new OrderedBodyIndex() {
+            @Override
+            protected double keyOf(Body body) {
+                return body.getAge();
+            }
+        };
+        this.areaIndex = new OrderedBodyIndex() {
+            @Override
+            protected double keyOf(Body body) {
+                return body.getArea();
+            }
+        };
+        this.routePlanner = new RoutePlanner();
+        this.spriteCache = new SpriteCache();
+        this.useSpriteCache = false;
+        this.densityRenderer = new DensityRenderer();
     }
 
     /* METHODS */
 
     /**
-     * drawBodies: this method draws all the bodies
+     * drawBodies: this method draws all the bodies in a render snapshot, as seen
+     * by the camera. It only reads the snapshot, so it can run while the bodies
+     * are being updated. Circles are filled, or copied from images in the sprite
+     * cache if it is turned on.
+     * Bodies too small to draw one by one are drawn first as a density map.
      *
      * @author Samuel
-     * @param g the graphics component
+     * @param g        the graphics component
+     * @param snapshot the snapshot to draw
+     */
+    public void drawBodies(Graphics g, RenderSnapshot snapshot) {
+        densityRenderer.render(g, snapshot);
+        for (int i = 0; i < snapshot.getBodyCount(); i++) {
+            if (snapshot.isPolygon(i)) {
+                g.setColor(snapshot.getBodyColor(i));
+                int n = snapshot.getVertexCount(i);
+                if (drawX == null || drawX.length < n) {
+                    drawX = new int[n];
+                    drawY = new int[n];
+                }
+                for (int j = 0; j < n; j++) {
+                    drawX[j] = (int) snapshot.toScreenX(snapshot.getVertexX(i, j));
+                    drawY[j] = (int) snapshot.toScreenY(snapshot.getVertexY(i, j));
+                }
+                g.fillPolygon(drawX, drawY, n);
+            } else {
+                double radius = snapshot.getBodyRadius(i) * snapshot.getZoom();
+                int x = (int) (snapshot.toScreenX(snapshot.getBodyX(i)) - radius);
+                int y = (int) (snapshot.toScreenY(snapshot.getBodyY(i)) - radius);
+                if (useSpriteCache) {
+                    spriteCache.drawCircle(g, snapshot.getBodyColor(i), x, y, (int) radius * 2);
+                } else {
+                    g.setColor(snapshot.getBodyColor(i));
+                    g.fillOval(x, y, (int) radius * 2, (int) radius * 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * addToSnapshot: adds every body to a render snapshot. Called on the
+     * simulation thread between steps.
+     *
+     * @param snapshot the snapshot being filled
      */
-    public void drawBodies(Graphics g) {
+    public void addToSnapshot(RenderSnapshot snapshot) {
         for (int i = 0; i < bodies.size(); i++) {
             if (bodies.get(i) != null) {
-                bodies.get(i).draw(g);
+                bodies.get(i).addToSnapshot(snapshot);
             }
         }
     }
@@ -134,51 +325,93 @@ public class BodyManager {
      */
     public void updateBodies() {
 
-        // initialize temporary variables storing collision resolvers
-        ArrayList<CollisionResolver> cols = new ArrayList<CollisionResolver>();
-        int len = bodies.size();
-
-        // check for collisions
-        for (int i = 0; i < len - 1; i++) {
-            for (int j = i + 1; j < len; j++) {
-                Body obj1 = bodies.get(i);
-                Body obj2 = bodies.get(j);
-                updateCollisions(obj1, obj2, cols);
+        // bodies spawned from here on are added at the end of the step
+        stepping = true;
+        try {
+            // take back the collision detectors and resolvers of the last step
+            collisionPool.reclaim();
+            cols.clear();
+            int len = bodies.size();
+
+            // check for collisions
+            for (int i = 0; i < len - 1; i++) {
+                for (int j = i + 1; j < len; j++) {
+                    Body obj1 = bodies.get(i);
+                    Body obj2 = bodies.get(j);
+                    updateCollisions(obj1, obj2, cols);
+                }
             }
-        }
 
-        // resolve collisions
-        for (int j = 0; j < COLLISION_ITERATIONS; j++) {
-            for (int i = 0; i < cols.size(); i++) {
-                cols.get(i).applyImpulse();
+            // resolve collisions
+            contactSolver.clear();
+            contactSolver.addAll(cols);
+            contactSolver.solve(COLLISION_ITERATIONS, POSITION_ITERATIONS);
+
+            // call the onCollide methods
+            for (CollisionResolver col : cols) {
+                if (!col.getBody1().isDestroyed() && !col.getBody2().isDestroyed()) {
+                    col.getBody1().onCollide(col, this, particleManager);
+                    col.getBody2().onCollide(col, this, particleManager);
+                }
             }
-        }
 
-        // call the onCollide methods
-        for (CollisionResolver col : cols) {
-            if (!col.getBody1().isDestroyed() && !col.getBody2().isDestroyed()) {
-                col.getBody1().onCollide(col, this, particleManager);
-                col.getBody2().onCollide(col, this, particleManager);
+            // move bodies
+            for (int i = 0; i < len; i++) {
+                bodies.get(i).move(this, particleManager);
             }
-        }
 
-        // move bodies
-        for (int i = 0; i < len; i++) {
-            bodies.get(i).move(this, particleManager);
+            // apply gravity on every body
+            updateGravity();
+
+            // remove destroyed bodies and add spawned bodies
+            applyCommands();
+            rankings.step();
+            routePlanner.step();
+        } finally {
+            // an exception must not leave new bodies deferred forever
+            stepping = false;
+
+            // the bodies have moved, so they are checked against their boxes in the tree on the next query
+            bodyTreeOutdated = true;
         }
+    }
 
-        // apply gravity on every body
-        updateGravity();
+    /**
+     * applyCommands: the sync point of the step. Destroyed bodies are removed and
+     * the bodies spawned during the step are added in one batch.
+     */
+    private void applyCommands() {
+        removeDestroyedBodies();
+        int added = commandBuffer.flush(bodies);
+        for (int i = bodies.size() - added; i < bodies.size(); i++) {
+            indexBody(bodies.get(i));
+        }
+    }
 
-        // remove bodies
-        Iterator<Body> b = bodies.iterator();
-        while (b.hasNext()) {
-            Body obj = b.next();
-            if (obj.isDestroyed()) {
-                b.remove();
-                numBodies--;
+    /**
+     * removeDestroyedBodies: removes every destroyed body in a single pass. The
+     * bodies that are kept are moved forward over the destroyed ones, keeping
+     * their order, and the leftover tail is cut off once at the end. The other
+     * bodies forget their collisions with the destroyed bodies.
+     */
+    private void removeDestroyedBodies() {
+        int len = bodies.size();
+        int kept = 0;
+        for (int i = 0; i < len; i++) {
+            Body obj = bodies.get(i);
+            if (!obj.isDestroyed()) {
+                if (kept != i) {
+                    bodies.set(kept, obj);
+                }
+                kept++;
+            } else {
+                obj.removeCollisions();
+                unindexBody(obj);
             }
         }
+        if (kept < len) {
+            bodies.subList(kept, len).clear();
+        }
     }
 
     /**
@@ -208,8 +441,10 @@ public class BodyManager {
                 Body b = bodies.get(j);
 
                 // calculate distance between two objects
-                Vec difference = b.getPos().getSub(a.getPos());
-                double lenSq = difference.getLengthSq();
+                double dx = b.getPos().getX() - a.getPos().getX();
+                double dy = b.getPos().getY() - a.getPos().getY();
+                double lenSq = dx * dx + dy * dy;
+                double length = Math.sqrt(lenSq);
 
                 // ensure that the radius is not too small
                 if (lenSq < DISTANCE_THRESHOLD) {
@@ -218,11 +453,12 @@ public class BodyManager {
 
                 // apply the formula Gm1m2/r^2
                 double force = GRAVITY_CONSTANT * a.getMass() * b.getMass() / lenSq;
-                Vec impulse = difference.getNormalized().getMult(force);
+                double impulseX = length == 0 ? 0 : dx / length * force;
+                double impulseY = length == 0 ? 0 : dy / length * force;
 
                 // apply impulses
-                a.applyImpulse(impulse, new Vec(0, 0));
-                b.applyImpulse(impulse.getReversed(), new Vec(0, 0));
+                a.applyImpulse(impulseX, impulseY);
+                b.applyImpulse(-impulseX, -impulseY);
 
             }
         }
@@ -240,13 +476,13 @@ public class BodyManager {
     private void updateCollisions(Body obj1, Body obj2, ArrayList<CollisionResolver> collisionResolver) {
 
         if (obj1.isResolveCollisions() && obj2.isResolveCollisions()) {
-            CollisionDetector col = new CollisionDetector(obj1, obj2);
+            CollisionDetector col = collisionPool.obtainDetector(obj1, obj2);
 
             // check if the two bodies are colliding
             if (col.checkCollision()) {
 
                 // add it to the array of collisions to be resolved
-                collisionResolver.add(new CollisionResolver(col));
+                collisionResolver.add(collisionPool.obtainResolver(col));
 
                 // update the HashMap of all the collisions the bodies are colliding with
                 if (obj1.getCollisions().putIfAbsent(obj2, 1) != null) {
@@ -256,12 +492,132 @@ public class BodyManager {
                     obj2.getCollisions().put(obj1, obj2.getCollisions().get(obj1) + 1);
                 }
             } else {
+                collisionPool.returnLastDetector();
                 obj1.getCollisions().remove(obj2);
                 obj2.getCollisions().remove(obj1);
             }
         }
     }
 
+    /**
+     * rayCast: finds the first body hit by a ray
+     *
+     * @param start the start of the ray
+     * @param end   the end of the ray
+     * @return the closest hit, or null if no body is hit
+     */
+    public RayCastHit rayCast(Vec start, Vec end) {
+        return circleCast(start, end, 0);
+    }
+
+    /**
+     * circleCast: finds the first body hit by a circle moving from start to end.
+     * If the bodies have moved since the last query, only the ones that left
+     * their fattened boxes are moved in the body tree first.
+     *
+     * @param start  the start position of the center of the circle
+     * @param end    the end position of the center of the circle
+     * @param radius the radius of the circle
+     * @return the closest hit, or null if no body is hit
+     */
+    public RayCastHit circleCast(Vec start, Vec end, double radius) {
+        if (bodyTreeOutdated) {
+            // only the bodies that left their fattened boxes are moved in the tree
+            bodyTree.refit();
+            bodyTreeOutdated = false;
+        }
+        return bodyTree.cast(start, end, radius);
+    }
+
+    /**
+     * addBody: adds a body to the simulation. While the bodies are being updated,
+     * the body is recorded in the command buffer and added at the end of the step
+     * instead.
+     *
+     * @param body the body to add
+     */
+    private void addBody(Body body) {
+        if (stepping) {
+            commandBuffer.spawn(body);
+            return;
+        }
+        bodies.add(body);
+        indexBody(body);
+    }
+
+    /**
+     * indexBody: adds a body to the indices and tells the body to report changes
+     * to its properties to this manager
+     *
+     * @param body the body to index
+     */
+    private void indexBody(Body body) {
+        body.setManager(this);
+        nameIndex.add(body);
+        rankings.add(body);
+        aggregates.add(body);
+        orbitIndex.add(body);
+        ageIndex.add(body);
+        areaIndex.add(body);
+        bodyTree.add(body);
+        if (body instanceof Planet) {
+            routePlanner.add((Planet) body);
+        }
+    }
+
+    /**
+     * unindexBody: removes a body from the indices
+     *
+     * @param body the body to remove
+     */
+    private void unindexBody(Body body) {
+        nameIndex.remove(body);
+        rankings.remove(body);
+        aggregates.remove(body);
+        orbitIndex.remove(body);
+        ageIndex.remove(body);
+        areaIndex.remove(body);
+        bodyTree.remove(body);
+        if (body instanceof Planet) {
+            routePlanner.remove((Planet) body);
+        }
+        body.setManager(null);
+    }
+
+    /**
+     * bodyRenamed: called by a body in this manager when its name changes
+     *
+     * @param body    the body that was renamed
+     * @param oldName the name of the body before it was renamed
+     */
+    public void bodyRenamed(Body body, String oldName) {
+        nameIndex.rename(body, oldName);
+    }
+
+    /**
+     * bodyChanged: called by a body in this manager when a property it is
+     * ranked or counted by, such as its area, age or population, changes
+     *
+     * @param body the body that changed
+     */
+    public void bodyChanged(Body body) {
+        rankings.update(body);
+        aggregates.update(body);
+        ageIndex.update(body);
+        areaIndex.update(body);
+    }
+
+    /**
+     * bodyOrbitChanged: called by a planet or moon in this manager when the name
+     * of the body it orbits changes
+     *
+     * @param body      the planet or moon
+     * @param oldParent the name of the body it orbited before
+     */
+    public void bodyOrbitChanged(Body body, String oldParent) {
+        orbitIndex.changeOrbit(body, oldParent);
+    }
+
     /**
      * addStar: Calling this method will add a star object to the bodyManager.
      *
@@ -280,22 +636,21 @@ public class BodyManager {
     public void addStar(String name, Vec pos, double mass, boolean isStatic, boolean resolveCollisions, Vec vel,
                         int age, double angle, double angVel, double rad) {
         Star s1 = new Star(name, pos, mass, isStatic, resolveCollisions, vel, age, angle, angVel, rad);
-        numBodies++;
-        bodies.add(s1);
+        addBody(s1);
     }
 
     /**
      * addStar: adds a new Star object to bodies given some necessary properties
      *
      * @param name
+     * @param pos    the position in the world
      * @param mass
      * @param age
      * @param radius
      */
-    public void addStar(String name, double mass, int age, double radius) {
-        Star s1 = new Star(name, mass, age, radius);
-        numBodies++;
-        bodies.add(s1);
+    public void addStar(String name, Vec pos, double mass, int age, double radius) {
+        Star s1 = new Star(name, pos, mass, age, radius);
+        addBody(s1);
     }
 
     /**
@@ -319,23 +674,22 @@ public class BodyManager {
                           int age, double angle, double angVel, double rad, int population, String orbitStar) {
         Planet p1 = new Planet(name, pos, mass, isStatic, resolveCollisions, vel, age, angle, angVel, rad, population,
                 orbitStar);
-        numBodies++;
-        bodies.add(p1);
+        addBody(p1);
     }
 
     /**
      * addPlanet: adds a new Planet object to bodies given some necessary properties
      *
      * @param name
+     * @param pos       the position in the world
      * @param mass
      * @param age
      * @param radius
      * @param orbitStar
      */
-    public void addPlanet(String name, double mass, int age, double radius, String orbitStar) {
-        Planet p1 = new Planet(name, mass, age, radius, orbitStar);
-        numBodies++;
-        bodies.add(p1);
+    public void addPlanet(String name, Vec pos, double mass, int age, double radius, String orbitStar) {
+        Planet p1 = new Planet(name, pos, mass, age, radius, orbitStar);
+        addBody(p1);
     }
 
     /**
@@ -357,23 +711,22 @@ public class BodyManager {
     public void addMoon(String name, Vec pos, double mass, boolean isStatic, boolean resolveCollisions, Vec vel,
                         int age, double angle, double angVel, double rad, String orbitStar) {
         Moon m1 = new Moon(name, pos, mass, isStatic, resolveCollisions, vel, age, angle, angVel, rad, orbitStar);
-        numBodies++;
-        bodies.add(m1);
+        addBody(m1);
     }
 
     /**
      * addMoon: adds a new Moon object to bodies given some necessary properties
      *
      * @param name
+     * @param pos         the position in the world
      * @param mass
      * @param age
      * @param radius
      * @param orbitPlanet
      */
-    public void addMoon(String name, double mass, int age, double radius, String orbitPlanet) {
-        Moon m1 = new Moon(name, mass, age, radius, orbitPlanet);
-        numBodies++;
-        bodies.add(m1);
+    public void addMoon(String name, Vec pos, double mass, int age, double radius, String orbitPlanet) {
+        Moon m1 = new Moon(name, pos, mass, age, radius, orbitPlanet);
+        addBody(m1);
     }
 
     /**
@@ -396,8 +749,7 @@ public class BodyManager {
     public void addAsteroid(String name, Vec pos, double mass, boolean isStatic, boolean resolveCollisions, Vec vel,
                             int age, double angle, double angVel, Vec[] verticies) {
         Asteroid a1 = new Asteroid(name, pos, mass, isStatic, resolveCollisions, vel, age, angle, angVel, verticies);
-        numBodies++;
-        bodies.add(a1);
+        addBody(a1);
     }
 
     /**
@@ -409,8 +761,7 @@ public class BodyManager {
      */
     public void addAsteroid(String name, double mass) {
         Asteroid a1 = new Asteroid(name, new Vec(600, 600), mass, new Vec(0, 0));
-        numBodies++;
-        bodies.add(a1);
+        addBody(a1);
     }
 
     /**
@@ -421,7 +772,7 @@ public class BodyManager {
      */
     public String displayStats() {
         String stats = "\nSpace Simulation Statistics:";
-        for (int i = 0; i < numBodies; i++) {
+        for (int i = 0; i < bodies.size(); i++) {
             stats += "\n" + bodies.get(i);
         }
         return stats;
@@ -434,16 +785,20 @@ public class BodyManager {
      * @return a boolean either the planet supports or does not support life
      */
     public boolean supportLife(String planetName) {
-        if (search(planetName) != null) {
-            Planet planet = (Planet) (search(planetName));
-            Star nearestStar = (Star) search(planet.orbitStar);
+        Body body = search(planetName);
+        if (body != null) {
+            Planet planet = (Planet) body;
+            Star nearestStar = orbitIndex.getStar(planet);
+            if (nearestStar == null) {
+                return false;
+            }
             double minDistance = 100 * nearestStar.radius;
             double maxDistance = 200 * nearestStar.radius;
             double distance = (planet.getPos().getSub(nearestStar.getPos())).getLength();
             if (distance >= minDistance && distance <= maxDistance) {
                 return true;
             }
-            planet.population = 0;
+            planet.setPopulation(0);
         }
         return false;
     }
@@ -455,7 +810,7 @@ public class BodyManager {
      */
     public String listBodies() {
         String names = "\n\nBody names: ";
-        for (int i = 0; i < numBodies; i++) {
+        for (int i = 0; i < bodies.size(); i++) {
             names += "\n" + (bodies.get(i)).name;
         }
         return names;
@@ -468,30 +823,36 @@ public class BodyManager {
      * @return the body object that the user searches for
      */
     public Body search(String inBody) {
-        // uses sequential search algorithm
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i).name.equals(inBody))
-                return bodies.get(i);
-        }
-        return null;
+        // uses the hash index of the names
+        return nameIndex.get(inBody);
     }
 
     /**
-     * sort: uses bubble sort to sort the bodies
+     * searchIgnoreCase: looks for a Body object given the name of the body,
+     * ignoring case
+     *
+     * @param inBody the name of the body which you are searching for.
+     * @return the body object that the user searches for
+     */
+    public Body searchIgnoreCase(String inBody) {
+        return nameIndex.getIgnoreCase(inBody);
+    }
+
+    /**
+     * sort: puts the bodies in order from the smallest area to the largest, using
+     * the area index
+     *
+     * @throws IllegalStateException if the area index does not hold the same
+     *                               number of bodies as the body list
      */
     public void sort() {
-        // uses bubble sorting algorithm
-        boolean sorted = false;
-        for (int i = numBodies - 1; i > 0 && !sorted; i++) {
-            sorted = true;
-            for (int j = 0; j < i; j++) {
-                if (bodies.get(j - 1).area > bodies.get(j).area) {
-                    sorted = false;
-                    Body temp = bodies.get(j);
-                    bodies.add(j, bodies.get(j - 1));
-                    bodies.add(j - 1, temp);
-                }
-            }
+        ArrayList<Body> sorted = areaIndex.getSorted();
+        if (sorted.size() != bodies.size()) {
+            throw new IllegalStateException("area index holds " + sorted.size() + " bodies but there are "
+                    + bodies.size());
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            bodies.set(i, sorted.get(i));
         }
     }
 
@@ -501,11 +862,7 @@ public class BodyManager {
      * @return the average area of the bodies
      */
     public double averageArea() {
-        double sumArea = 0;
-        for (int i = 0; i < numBodies; i++) {
-            sumArea += bodies.get(i).area;
-        }
-        return sumArea / numBodies;
+        return aggregates.getAverageArea();
     }
 
     /**
@@ -514,27 +871,67 @@ public class BodyManager {
      * @return the average age of the bodies
      */
     public double averageAge() {
-        double sumAge = 0;
-        for (int i = 0; i < numBodies; i++) {
-            sumAge += bodies.get(i).age;
-        }
-        return sumAge / numBodies;
+        return aggregates.getAverageAge();
     }
 
     /**
-     * bodiesOlderThan: finds all the bodies which are older than the specified age
+     * bodiesOlderThan: finds all the bodies which are older than the specified
+     * age, from the youngest to the oldest
      *
      * @param minAge the minimum age of the body
-     * @return the average area of the bodies
+     * @return the names and ages of the bodies, one per line
      */
     public String bodiesOlderThan(int minAge) {
-        String oldBodies = "";
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i).age > minAge) {
-                oldBodies += bodies.get(i).name + " " + bodies.get(i).age + " yrs\n";
-            }
+        ArrayList<Body> oldBodies = ageIndex.getRange(minAge + 1.0, Double.POSITIVE_INFINITY);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < oldBodies.size(); i++) {
+            sb.append(oldBodies.get(i).getName()).append(' ').append(oldBodies.get(i).getAge()).append(" yrs\n");
         }
-        return oldBodies;
+        return sb.toString();
+    }
+
+    /**
+     * bodiesInAgeRange: finds the bodies with ages from min to max, inclusive,
+     * from the youngest to the oldest
+     *
+     * @param min the smallest age
+     * @param max the largest age
+     * @return the bodies in order
+     */
+    public ArrayList<Body> bodiesInAgeRange(int min, int max) {
+        return ageIndex.getRange(min, max);
+    }
+
+    /**
+     * bodiesInAreaRange: finds the bodies with areas from min to max, inclusive,
+     * from the smallest to the largest
+     *
+     * @param min the smallest area
+     * @param max the largest area
+     * @return the bodies in order
+     */
+    public ArrayList<Body> bodiesInAreaRange(double min, double max) {
+        return areaIndex.getRange(min, max);
+    }
+
+    /**
+     * largestBodies: finds the bodies with the largest areas
+     *
+     * @param k the number of bodies
+     * @return up to k bodies, from the largest down
+     */
+    public ArrayList<Body> largestBodies(int k) {
+        return areaIndex.getTop(k);
+    }
+
+    /**
+     * oldestBodies: finds the oldest bodies
+     *
+     * @param k the number of bodies
+     * @return up to k bodies, from the oldest down
+     */
+    public ArrayList<Body> oldestBodies(int k) {
+        return ageIndex.getTop(k);
     }
 
     /**
@@ -543,18 +940,10 @@ public class BodyManager {
      * @param planetID the moons which orbit the planet
      */
     public void moonsOf(String planetID) {
-        Moon[] moons = new Moon[20];
-        int numMoons = 0;
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Moon && ((Moon) bodies.get(i)).orbitPlanet.equals(planetID)
-                    && numMoons <= 20) {
-                moons[numMoons] = (Moon) bodies.get(i);
-                numMoons++;
-            }
-        }
-        Planet planet = (Planet) search(planetID);
-        if (search(planetID) instanceof Planet) {
-            planet.moons = moons;
+        Body planet = search(planetID);
+        if (planet instanceof Planet) {
+            ArrayList<Moon> moons = orbitIndex.getMoons((Planet) planet);
+            ((Planet) planet).setMoons(moons.toArray(new Moon[moons.size()]));
         }
     }
 
@@ -564,18 +953,10 @@ public class BodyManager {
      * @param starID the star which the planets orbit around
      */
     public void planetsOf(String starID) {
-        Planet[] planets = new Planet[20];
-        int numPlanets = 0;
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Moon && ((Moon) bodies.get(i)).orbitPlanet.equals(starID)
-                    && numPlanets <= 20) {
-                planets[numPlanets] = (Planet) bodies.get(i);
-                numPlanets++;
-            }
-        }
-        Star star = (Star) search(starID);
-        if (search(starID) instanceof Star) {
-            star.setPlanets(planets);
+        Body star = search(starID);
+        if (star instanceof Star) {
+            ArrayList<Planet> planets = orbitIndex.getPlanets((Star) star);
+            ((Star) star).setPlanets(planets.toArray(new Planet[planets.size()]));
         }
     }
 
@@ -585,17 +966,7 @@ public class BodyManager {
      * @return the largest Moon object
      */
     public Moon largestMoon() {
-        Moon largest = null;
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Moon) {
-                Moon b = (Moon) bodies.get(i);
-                if (largest == null || b.CompareTo(largest) > 0) {
-                    largest = b;
-                }
-            }
-        }
-        return largest;
-
+        return rankings.getLargestMoon();
     }
 
     /**
@@ -604,18 +975,7 @@ public class BodyManager {
      * @return the most populated Planet object
      */
     public Planet mostPopPlanet() {
-        Planet mostPopulated = null;
-
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Planet) {
-                Planet p = (Planet) bodies.get(i);
-                if (mostPopulated == null || p.compareTo(mostPopulated) > 0) {
-                    mostPopulated = p;
-                }
-            }
-        }
-
-        return mostPopulated;
+        return rankings.getMostPopPlanet();
     }
 
     /**
@@ -624,165 +984,37 @@ public class BodyManager {
      * @return the oldest Star object
      */
     public Star oldestStar() {
-        Star oldest = null;
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Star) {
-                Star s = (Star) bodies.get(i);
-                if (oldest == null || s.compareTo(oldest) > 0) {
-                    oldest = s;
-                }
-            }
-        }
-        return oldest;
+        return rankings.getOldestStar();
     }
 
     /**
-     * fastestAsteroid: finds the fastest Asteroid object
+     * fastestAsteroid: finds the fastest Asteroid object. The speeds change every
+     * step, so the answer can be a few steps out of date.
      *
      * @return the fastestAsteroid object
      */
     public Asteroid fastestAsteroid() {
-        Asteroid fastest = null;
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Asteroid) {
-                Asteroid a = (Asteroid) bodies.get(i);
-                if (fastest == null || a.compareTo(fastest) > 0) {
-                    fastest = a;
-                }
-            }
-        }
-        return fastest;
+        return rankings.getFastestAsteroid();
     }
 
     /**
-     * shortestPath: Uses recursion to find shortest path from planet 1 to
-     * destination, without traveling more than given maximum distance between two
-     * planets
+     * findShortestPath: Finds the shortest path from planet 1 to destination,
+     * without traveling more than given maximum distance between two planets. The
+     * planet names are matched ignoring case.
      *
-     * @param planet1
-     * @param destination
-     * @param maxDistance
-     * @return ShortestPath object containing total distance and path (planets
-     *         visited in order)
+     * @param planet1     the name of the planet to start from
+     * @param destination the name of the planet to reach
+     * @param maxDistance the longest distance allowed between two planets
+     * @return PlanetPath object containing total distance and path (planets
+     *         visited in order), or null if there is no such path
      */
     public PlanetPath findShortestPath(String planet1, String destination, double maxDistance) {
-
-        boolean found = false;
-        Planet currPlanet = null;
-        Planet nextPlanet = null;
-
-        // Identifying current Planet
-        for (int i = 0; i < numBodies; i++) {
-            if (planet1.equalsIgnoreCase(bodies.get(i).name)) {
-                currPlanet = (Planet) bodies.get(i);
-                currPlanet.setVisited(true);
-                found = true;
-                System.out.println(currPlanet.name);
-            }
+        Body start = searchIgnoreCase(planet1);
+        Body end = searchIgnoreCase(destination);
+        if (!(start instanceof Planet) || !(end instanceof Planet)) {
+            return null;
         }
-
-        if (found) {
-            // Base case: destination reached
-            if (planet1.equalsIgnoreCase(destination)) {
-                return new PlanetPath(0, planet1);
-            }
-
-            // If destination not reached, identify next planet and find distance from next
-            // planet to destination
-            nextPlanet = closestTo(currPlanet);
-            nextPlanet.setVisited(true);
-            double distGone = currPlanet.distanceTo(nextPlanet);
-            if (distGone < maxDistance) {
-                // check if closest planet is within max distance
-                if(findShortestPath(nextPlanet.name, destination, maxDistance)!=null)
-                    return findShortestPath(nextPlanet.name, destination, maxDistance).addToPath(distGone, planet1);
-            }
-        }
-        return null;
-
-    }
-
-    /**
-     * closestTo: Finds other Planet closest to given Planet
-     *
-     * @param p1 given Planet
-     * @return closest Planet
-     */
-    private Planet closestTo(Planet p1) {
-        Planet p = null;
-        if (p1 != null) {
-            double shortestDist = -1;
-            for (int i = 0; i < numBodies; i++) {
-                Body b = bodies.get(i);
-                if (!b.equals(p1) && b instanceof Planet && (shortestDist == -1 || p1.distanceTo(b) < shortestDist)) {
-                    p = (Planet) b;
-                    if (p.isVisited() == false) {
-                        shortestDist = p1.distanceTo(p);
-                    }
-                }
-            }
-        }
-        return p;
-    }
-
-    /**
-     * resetPlanetVisits: Resets visited marker on planets
-     */
-    public void resetPlanetVisits() {
-        for (int i = 0; i < numBodies; i++) {
-            if (bodies.get(i) instanceof Planet) {
-                ((Planet) (bodies.get(i))).setVisited(false);
-            }
-        }
-    }
-
-    /**
-     * PlanetPath: This class represents a path between planets
-     *
-     * @author Susie Choi
-     */
-    private static class PlanetPath {
-
-        /* FIELDS */
-        private double distance; // instance field: total distance travelled
-        private String planetsVisited; // instance field: list planets visited in order
-
-        /* CONSTRUCTOR */
-
-        /**
-         * Path: Constructor that creates a new Path object to store distance traveled
-         * and planets visited
-         *
-         * @param distance
-         * @param planetsVisited containing planets visited
-         */
-        private PlanetPath(double distance, String planetsVisited) {
-            this.distance = distance;
-            this.planetsVisited = planetsVisited;
-        }
-
-        /**
-         * addToPath: Adds distance traveled to a given planet to the path
-         *
-         * @param distance
-         * @param planet
-         * @return
-         */
-        private PlanetPath addToPath(double distance, String planet) {
-            this.distance += distance;
-            this.planetsVisited = planet + " " + this.planetsVisited;
-            return new PlanetPath(this.distance, this.planetsVisited);
-        }
-
-        /**
-         * toString: Organizes properties into a String
-         *
-         * @return String with organized properties
-         */
-        public String toString() {
-            return "\n\nTotal Distance: " + distance + "\n\nPath: " + planetsVisited;
-        }
-
+        return routePlanner.findPath((Planet) start, (Planet) end, maxDistance);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+/**
+ * File Name: BodyNameIndex.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class maps the names of the bodies to the bodies, so that a body can be found by name without
+ * looking through every body. Names can also be looked up ignoring case.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+public class BodyNameIndex {
+
+    /* FIELDS */
+
+    private HashMap<String, ArrayList<Body>> byName; // instance field: the bodies with each name, in the order added
+    private HashMap<String, ArrayList<Body>> byFoldedName; // instance field: the bodies with each name ignoring case
+    private int size; // instance field: the number of bodies in the index
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of bodies in the index
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyNameIndex: Constructor that creates an empty index
+     */
+    public BodyNameIndex() {
+        byName = new HashMap<String, ArrayList<Body>>();
+        byFoldedName = new HashMap<String, ArrayList<Body>>();
+    }
+
+    /* METHODS */
+
+    /**
+     * get: Finds a body by its exact name. If several bodies share the name, the
+     * one added first is returned.
+     *
+     * @param name the name of the body
+     * @return the body, or null if there is no body with the name
+     */
+    public synchronized Body get(String name) {
+        if (name == null) {
+            return null;
+        }
+        ArrayList<Body> list = byName.get(name);
+        return list == null ? null : list.get(0);
+    }
+
+    /**
+     * getIgnoreCase: Finds a body by its name, ignoring case. If several bodies
+     * match, the one added first is returned.
+     *
+     * @param name the name of the body
+     * @return the body, or null if there is no body with the name
+     */
+    public synchronized Body getIgnoreCase(String name) {
+        if (name == null) {
+            return null;
+        }
+        ArrayList<Body> list = byFoldedName.get(fold(name));
+        return list == null ? null : list.get(0);
+    }
+
+    /**
+     * add: Adds a body to the index
+     *
+     * @param body the body to add
+     */
+    public synchronized void add(Body body) {
+        put(byName, body.getName(), body);
+        put(byFoldedName, fold(body.getName()), body);
+        size++;
+    }
+
+    /**
+     * remove: Removes a body from the index
+     *
+     * @param body the body to remove
+     */
+    public synchronized void remove(Body body) {
+        if (take(byName, body.getName(), body)) {
+            take(byFoldedName, fold(body.getName()), body);
+            size--;
+        }
+    }
+
+    /**
+     * rename: Moves a body from its old name to its current name, if it is in
+     * the index
+     *
+     * @param body    the body that was renamed
+     * @param oldName the name of the body before it was renamed
+     */
+    public synchronized void rename(Body body, String oldName) {
+        if (take(byName, oldName, body)) {
+            take(byFoldedName, fold(oldName), body);
+            put(byName, body.getName(), body);
+            put(byFoldedName, fold(body.getName()), body);
+        }
+    }
+
+    /**
+     * rebuild: Replaces the contents of the index with a list of bodies
+     *
+     * @param bodies the bodies to index
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        clear();
+        for (int i = 0; i < bodies.size(); i++) {
+            Body body = bodies.get(i);
+            if (body != null) {
+                add(body);
+            }
+        }
+    }
+
+    /**
+     * clear: Removes every body from the index
+     */
+    public synchronized void clear() {
+        byName.clear();
+        byFoldedName.clear();
+        size = 0;
+    }
+
+    /**
+     * put: Adds a body under a key
+     *
+     * @param map  the map to add to
+     * @param key  the key
+     * @param body the body
+     */
+    private static void put(HashMap<String, ArrayList<Body>> map, String key, Body body) {
+        ArrayList<Body> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<Body>(1);
+            map.put(key, list);
+        }
+        list.add(body);
+    }
+
+    /**
+     * take: Removes a body from under a key
+     *
+     * @param map  the map to remove from
+     * @param key  the key
+     * @param body the body
+     * @return whether the body was under the key
+     */
+    private static boolean take(HashMap<String, ArrayList<Body>> map, String key, Body body) {
+        ArrayList<Body> list = map.get(key);
+        if (list == null || !list.remove(body)) {
+            return false;
+        }
+        if (list.isEmpty()) {
+            map.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * fold: Converts a name to the key used to look it up ignoring case
+     *
+     * @param name the name
+     * @return the key
+     */
+    private static String fold(String name) {
+        if (name == null) {
+            return null;
+        }
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+}
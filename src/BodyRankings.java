@@ -0,0 +1,382 @@
+/**
+ * File Name: BodyRankings.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class keeps track of the largest moon, the most populated planet, the oldest star and the
+ * fastest asteroid, so that they can be found without looking through every body. Moons, planets and stars are kept
+ * in heaps that are updated when a body is added, removed or changed. The speeds of the asteroids change every step,
+ * so the fastest asteroid is only looked for again after a few steps.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class BodyRankings {
+
+    /* FIELDS */
+
+    private static final int SPEED_REFRESH_STEPS = 10; // the most steps the fastest asteroid can be out of date by
+
+    private BodyHeap moonsByArea; // instance field: moons, largest first
+    private BodyHeap planetsByPopulation; // instance field: planets, most populated first
+    private BodyHeap starsByAge; // instance field: stars, oldest first
+    private ArrayList<Asteroid> asteroids; // instance field: every asteroid, in no particular order
+    private HashMap<Asteroid, Integer> asteroidIndices; // instance field: where each asteroid is in asteroids
+    private Asteroid fastestAsteroid; // instance field: the fastest asteroid when it was last looked for
+    private int stepsSinceRefresh; // instance field: the steps since the fastest asteroid was looked for
+    private long nextOrder; // instance field: the order given to the next body added
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyRankings: Constructor that creates empty rankings
+     */
+    public BodyRankings() {
+        moonsByArea = new BodyHeap();
+        planetsByPopulation = new BodyHeap();
+        starsByAge = new BodyHeap();
+        asteroids = new ArrayList<Asteroid>();
+        asteroidIndices = new HashMap<Asteroid, Integer>();
+        stepsSinceRefresh = SPEED_REFRESH_STEPS;
+    }
+
+    /* METHODS */
+
+    /**
+     * getLargestMoon: Retrieves the moon with the largest area. Moons that are
+     * as large are ordered by when they were added.
+     *
+     * @return the largest moon, or null if there are no moons
+     */
+    public synchronized Moon getLargestMoon() {
+        return (Moon) moonsByArea.peek();
+    }
+
+    /**
+     * getMostPopPlanet: Retrieves the planet with the largest population
+     *
+     * @return the most populated planet, or null if there are no planets
+     */
+    public synchronized Planet getMostPopPlanet() {
+        return (Planet) planetsByPopulation.peek();
+    }
+
+    /**
+     * getOldestStar: Retrieves the star with the largest age
+     *
+     * @return the oldest star, or null if there are no stars
+     */
+    public synchronized Star getOldestStar() {
+        return (Star) starsByAge.peek();
+    }
+
+    /**
+     * getFastestAsteroid: Retrieves the fastest asteroid. The answer can be up to
+     * SPEED_REFRESH_STEPS steps out of date, but is always an asteroid that has
+     * not been removed.
+     *
+     * @return the fastest asteroid, or null if there are no asteroids
+     */
+    public synchronized Asteroid getFastestAsteroid() {
+        if (stepsSinceRefresh >= SPEED_REFRESH_STEPS || fastestAsteroid == null) {
+            fastestAsteroid = null;
+            double fastestSpeed = 0;
+            for (int i = 0; i < asteroids.size(); i++) {
+                Asteroid a = asteroids.get(i);
+                double speed = a.getVel().getLength();
+                if (fastestAsteroid == null || speed > fastestSpeed) {
+                    fastestAsteroid = a;
+                    fastestSpeed = speed;
+                }
+            }
+            stepsSinceRefresh = 0;
+        }
+        return fastestAsteroid;
+    }
+
+    /**
+     * step: Records that the bodies have moved one step
+     */
+    public synchronized void step() {
+        stepsSinceRefresh++;
+    }
+
+    /**
+     * add: Adds a body to the rankings for its type
+     *
+     * @param body the body to add
+     */
+    public synchronized void add(Body body) {
+        long order = nextOrder++;
+        if (body instanceof Moon) {
+            moonsByArea.add(body, body.getArea(), order);
+        } else if (body instanceof Planet) {
+            planetsByPopulation.add(body, ((Planet) body).getPopulation(), order);
+        } else if (body instanceof Star) {
+            starsByAge.add(body, body.getAge(), order);
+        } else if (body instanceof Asteroid) {
+            Asteroid a = (Asteroid) body;
+            if (!asteroidIndices.containsKey(a)) {
+                asteroidIndices.put(a, asteroids.size());
+                asteroids.add(a);
+                if (fastestAsteroid != null && a.compareTo(fastestAsteroid) > 0) {
+                    fastestAsteroid = a;
+                }
+            }
+        }
+    }
+
+    /**
+     * remove: Removes a body from the rankings for its type
+     *
+     * @param body the body to remove
+     */
+    public synchronized void remove(Body body) {
+        if (body instanceof Moon) {
+            moonsByArea.remove(body);
+        } else if (body instanceof Planet) {
+            planetsByPopulation.remove(body);
+        } else if (body instanceof Star) {
+            starsByAge.remove(body);
+        } else if (body instanceof Asteroid) {
+            Integer index = asteroidIndices.remove(body);
+            if (index != null) {
+                // fill the gap with the last asteroid
+                Asteroid last = asteroids.remove(asteroids.size() - 1);
+                if (last != body) {
+                    asteroids.set(index, last);
+                    asteroidIndices.put(last, index);
+                }
+                if (fastestAsteroid == body) {
+                    fastestAsteroid = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * update: Moves a body to its new place after the property it is ranked by
+     * has changed
+     *
+     * @param body the body that changed
+     */
+    public synchronized void update(Body body) {
+        if (body instanceof Moon) {
+            moonsByArea.update(body, body.getArea());
+        } else if (body instanceof Planet) {
+            planetsByPopulation.update(body, ((Planet) body).getPopulation());
+        } else if (body instanceof Star) {
+            starsByAge.update(body, body.getAge());
+        }
+    }
+
+    /**
+     * rebuild: Replaces the contents of the rankings with a list of bodies
+     *
+     * @param bodies the bodies to rank
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        moonsByArea.clear();
+        planetsByPopulation.clear();
+        starsByAge.clear();
+        asteroids.clear();
+        asteroidIndices.clear();
+        fastestAsteroid = null;
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i) != null) {
+                add(bodies.get(i));
+            }
+        }
+    }
+
+    /**
+     * BodyHeap: This class is a max heap of bodies that knows where each body is,
+     * so that a body can be removed or moved when its key changes. Bodies with
+     * equal keys are ordered by when they were added.
+     */
+    private static class BodyHeap {
+
+        /* FIELDS */
+        private Body[] bodies; // instance field: the bodies in heap order
+        private double[] keys; // instance field: the key of each body
+        private long[] orders; // instance field: when each body was added
+        private int size; // instance field: the number of bodies
+        private HashMap<Body, Integer> indices; // instance field: where each body is in the heap
+
+        /* CONSTRUCTORS */
+
+        /**
+         * BodyHeap: Constructor that creates an empty heap
+         */
+        private BodyHeap() {
+            bodies = new Body[16];
+            keys = new double[16];
+            orders = new long[16];
+            indices = new HashMap<Body, Integer>();
+        }
+
+        /* METHODS */
+
+        /**
+         * peek: Retrieves the body with the largest key
+         *
+         * @return the body, or null if the heap is empty
+         */
+        private Body peek() {
+            return size == 0 ? null : bodies[0];
+        }
+
+        /**
+         * add: Adds a body to the heap, unless it is already in it
+         *
+         * @param body  the body to add
+         * @param key   the key of the body
+         * @param order when the body was added
+         */
+        private void add(Body body, double key, long order) {
+            if (indices.containsKey(body)) {
+                return;
+            }
+            if (size == bodies.length) {
+                bodies = Arrays.copyOf(bodies, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+                orders = Arrays.copyOf(orders, size * 2);
+            }
+            bodies[size] = body;
+            keys[size] = key;
+            orders[size] = order;
+            indices.put(body, size);
+            size++;
+            siftUp(size - 1);
+        }
+
+        /**
+         * remove: Removes a body from the heap, if it is in it
+         *
+         * @param body the body to remove
+         */
+        private void remove(Body body) {
+            Integer index = indices.remove(body);
+            if (index == null) {
+                return;
+            }
+            size--;
+            if (index != size) {
+                move(size, index);
+                siftDown(siftUp(index));
+            }
+            bodies[size] = null;
+        }
+
+        /**
+         * update: Changes the key of a body, if it is in the heap
+         *
+         * @param body the body
+         * @param key  the new key
+         */
+        private void update(Body body, double key) {
+            Integer index = indices.get(body);
+            if (index != null && keys[index] != key) {
+                keys[index] = key;
+                siftDown(siftUp(index));
+            }
+        }
+
+        /**
+         * clear: Removes every body from the heap
+         */
+        private void clear() {
+            Arrays.fill(bodies, 0, size, null);
+            size = 0;
+            indices.clear();
+        }
+
+        /**
+         * before: Checks whether the body at one index belongs above the body at
+         * another
+         *
+         * @param i the first index
+         * @param j the second index
+         * @return true if the first body has a larger key, or the same key and was
+         *         added earlier
+         */
+        private boolean before(int i, int j) {
+            return keys[i] > keys[j] || (keys[i] == keys[j] && orders[i] < orders[j]);
+        }
+
+        /**
+         * siftUp: Moves a body up until its parent belongs above it
+         *
+         * @param i the index of the body
+         * @return the new index of the body
+         */
+        private int siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!before(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+            return i;
+        }
+
+        /**
+         * siftDown: Moves a body down until it belongs above its children
+         *
+         * @param i the index of the body
+         */
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && before(child + 1, child)) {
+                    child++;
+                }
+                if (!before(child, i)) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * move: Moves the body at one index to another index
+         *
+         * @param from the index to move from
+         * @param to   the index to move to
+         */
+        private void move(int from, int to) {
+            bodies[to] = bodies[from];
+            keys[to] = keys[from];
+            orders[to] = orders[from];
+            indices.put(bodies[to], to);
+        }
+
+        /**
+         * swap: Swaps the bodies at two indices
+         *
+         * @param i the first index
+         * @param j the second index
+         */
+        private void swap(int i, int j) {
+            Body body = bodies[i];
+            double key = keys[i];
+            long order = orders[i];
+            bodies[i] = bodies[j];
+            keys[i] = keys[j];
+            orders[i] = orders[j];
+            bodies[j] = body;
+            keys[j] = key;
+            orders[j] = order;
+            indices.put(bodies[i], i);
+            indices.put(bodies[j], j);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * File Name: BodyStats.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class stores the statistics of a group of bodies at one moment: how many there are, and the
+ * total, average, smallest and largest of their areas and ages.
+ */
+
+public class BodyStats {
+
+    /* FIELDS */
+
+    private int count; // instance field: the number of bodies
+    private double totalArea; // instance field: the sum of the areas
+    private double minArea; // instance field: the smallest area, or NaN if there are no bodies
+    private double maxArea; // instance field: the largest area, or NaN if there are no bodies
+    private double totalAge; // instance field: the sum of the ages
+    private int minAge; // instance field: the smallest age, or 0 if there are no bodies
+    private int maxAge; // instance field: the largest age, or 0 if there are no bodies
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of bodies
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the areas
+     */
+    public double getTotalArea() {
+        return totalArea;
+    }
+
+    /**
+     * @return the average area, or NaN if there are no bodies
+     */
+    public double getAverageArea() {
+        return totalArea / count;
+    }
+
+    /**
+     * @return the smallest area, or NaN if there are no bodies
+     */
+    public double getMinArea() {
+        return minArea;
+    }
+
+    /**
+     * @return the largest area, or NaN if there are no bodies
+     */
+    public double getMaxArea() {
+        return maxArea;
+    }
+
+    /**
+     * @return the sum of the ages
+     */
+    public double getTotalAge() {
+        return totalAge;
+    }
+
+    /**
+     * @return the average age, or NaN if there are no bodies
+     */
+    public double getAverageAge() {
+        return totalAge / count;
+    }
+
+    /**
+     * @return the smallest age, or 0 if there are no bodies
+     */
+    public int getMinAge() {
+        return minAge;
+    }
+
+    /**
+     * @return the largest age, or 0 if there are no bodies
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyStats: Constructor that creates new statistics with given fields
+     *
+     * @param count     the number of bodies
+     * @param totalArea the sum of the areas
+     * @param minArea   the smallest area
+     * @param maxArea   the largest area
+     * @param totalAge  the sum of the ages
+     * @param minAge    the smallest age
+     * @param maxAge    the largest age
+     */
+    public BodyStats(int count, double totalArea, double minArea, double maxArea, double totalAge, int minAge,
+                     int maxAge) {
+        this.count = count;
+        this.totalArea = totalArea;
+        this.minArea = minArea;
+        this.maxArea = maxArea;
+        this.totalAge = totalAge;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    /* METHODS */
+
+    /**
+     * toString: Organizes the statistics into a String
+     *
+     * @return String organized information
+     */
+    @Override
+    public String toString() {
+        return "\nCount: " + count + "\nAverage Area: " + getAverageArea() + "\nArea Range: " + minArea + " - "
+                + maxArea + "\nAverage Age: " + getAverageAge() + "\nAge Range: " + minAge + " - " + maxAge;
+    }
+
+}
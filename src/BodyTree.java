@@ -0,0 +1,613 @@
+/**
+ * File Name: BodyTree.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class is a dynamic bounding volume tree over the bounding boxes of the bodies. It is used to find
+ * the bodies a ray or a moving circle hits without testing every body. Each body is stored with a fattened box, grown
+ * by a margin and stretched along its velocity, so a body only has to be moved in the tree once it leaves that box.
+ * Bodies are added and removed one at a time, and the tree is kept balanced with rotations, so each change takes
+ * logarithmic time.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class BodyTree {
+
+    /* FIELDS */
+
+    private static final int NULL = -1; // marks a missing node
+    private static final double FAT_MARGIN = 4; // distance each fattened box is grown by on every side
+    private static final double MOTION_STEPS = 4; // fattened boxes are stretched along the velocity for this many steps
+
+    private int root; // the root node, or NULL if the tree is empty
+    private int capacity; // the number of nodes that fit in the arrays
+    private int freeList; // the first unused node, with the rest chained through parent
+    private double[] minX, maxX, minY, maxY; // the bounding box of each node
+    private int[] parent; // the parent of each node, or the next unused node
+    private int[] left, right; // the children of each node, or NULL for leaves
+    private int[] height; // the height of each node, 0 for leaves
+    private Body[] nodeBody; // the body of each leaf
+    private HashMap<Body, Integer> leaves; // the leaf of each body
+    private double[] box; // reused bounding box of a body
+    private int[] stack; // reused stack for traversal
+    private int reinsertions; // the number of bodies moved in the tree because they left their fattened box
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of bodies in the tree
+     */
+    public int getNumBodies() {
+        return leaves.size();
+    }
+
+    /**
+     * @return the height of the tree, or -1 if it is empty
+     */
+    public int getHeight() {
+        return root == NULL ? -1 : height[root];
+    }
+
+    /**
+     * @return the number of bodies moved in the tree because they left their
+     *         fattened box
+     */
+    public int getReinsertions() {
+        return reinsertions;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * BodyTree: Constructor that creates an empty tree
+     */
+    public BodyTree() {
+        this.leaves = new HashMap<Body, Integer>();
+        this.box = new double[4];
+        this.capacity = 0;
+        grow(16);
+        this.root = NULL;
+    }
+
+    /* METHODS */
+
+    /**
+     * rebuild: Empties the tree and adds every body in a list. Destroyed bodies
+     * are left out.
+     *
+     * @param list the bodies
+     */
+    public void rebuild(ArrayList<Body> list) {
+        leaves.clear();
+        Arrays.fill(nodeBody, null);
+        root = NULL;
+        freeList = NULL;
+        for (int i = capacity - 1; i >= 0; i--) {
+            parent[i] = freeList;
+            freeList = i;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Body b = list.get(i);
+            if (b != null && !b.isDestroyed()) {
+                add(b);
+            }
+        }
+    }
+
+    /**
+     * add: Adds a body to the tree with a fattened box around it
+     *
+     * @param body the body to add
+     */
+    public void add(Body body) {
+        if (leaves.containsKey(body)) {
+            return;
+        }
+        int leaf = allocateNode();
+        nodeBody[leaf] = body;
+        fatten(leaf, body);
+        insertLeaf(leaf);
+        leaves.put(body, leaf);
+    }
+
+    /**
+     * remove: Removes a body from the tree
+     *
+     * @param body the body to remove
+     */
+    public void remove(Body body) {
+        Integer leaf = leaves.remove(body);
+        if (leaf == null) {
+            return;
+        }
+        removeLeaf(leaf);
+        freeNode(leaf);
+    }
+
+    /**
+     * update: Moves a body in the tree if it has left its fattened box. A body
+     * still inside its box is left where it is.
+     *
+     * @param body the body that may have moved
+     * @return if the body was moved in the tree
+     */
+    public boolean update(Body body) {
+        Integer leaf = leaves.get(body);
+        return leaf != null && updateLeaf(leaf);
+    }
+
+    /**
+     * refit: Moves every body that has left its fattened box in the tree. The
+     * bodies still inside their boxes are left where they are.
+     *
+     * @return the number of bodies moved in the tree
+     */
+    public int refit() {
+        int moved = 0;
+        // the leaves keep their nodes when they are moved, so the nodes can be walked while the tree changes
+        int n = capacity;
+        for (int node = 0; node < n; node++) {
+            if (nodeBody[node] != null && updateLeaf(node)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * updateLeaf: Moves a leaf in the tree if its body has left its fattened box
+     *
+     * @param leaf the leaf
+     * @return if the leaf was moved
+     */
+    private boolean updateLeaf(int leaf) {
+        Body body = nodeBody[leaf];
+        body.getMaxMin(box);
+        if (minX[leaf] <= box[0] && maxX[leaf] >= box[1] && minY[leaf] <= box[2] && maxY[leaf] >= box[3]) {
+            return false;
+        }
+        removeLeaf(leaf);
+        fatten(leaf, body);
+        insertLeaf(leaf);
+        reinsertions++;
+        return true;
+    }
+
+    /**
+     * cast: Finds the first body hit by a circle moving from start to end. Nodes
+     * whose boxes are farther than the closest hit so far are skipped. A radius of
+     * 0 casts a ray. Destroyed bodies are not hit.
+     *
+     * @param start  the start of the cast
+     * @param end    the end of the cast
+     * @param radius the radius of the moving circle
+     * @return the closest hit, or null if nothing is hit
+     */
+    public RayCastHit cast(Vec start, Vec end, double radius) {
+        if (root == NULL) {
+            return null;
+        }
+
+        double sx = start.getX();
+        double sy = start.getY();
+        double dx = end.getX() - sx;
+        double dy = end.getY() - sy;
+        RayCastHit closest = null;
+        double best = 1;
+
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            if (enterBox(node, sx, sy, dx, dy, radius) > best) {
+                continue;
+            }
+            if (left[node] == NULL) {
+                Body body = nodeBody[node];
+                if (body.isDestroyed()) {
+                    continue;
+                }
+                RayCastHit hit = CollisionDetector.shapeCast(body, start, end, radius, best);
+                if (hit != null && hit.getFraction() <= best) {
+                    closest = hit;
+                    best = hit.getFraction();
+                }
+            } else {
+                stack[top++] = left[node];
+                stack[top++] = right[node];
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * fatten: Sets the box of a leaf to the box of its body, grown by the margin
+     * and stretched along the velocity of the body
+     *
+     * @param leaf the leaf
+     * @param body the body of the leaf
+     */
+    private void fatten(int leaf, Body body) {
+        body.getMaxMin(box);
+        minX[leaf] = box[0] - FAT_MARGIN;
+        maxX[leaf] = box[1] + FAT_MARGIN;
+        minY[leaf] = box[2] - FAT_MARGIN;
+        maxY[leaf] = box[3] + FAT_MARGIN;
+        double vx = body.getVel().getX() * MOTION_STEPS;
+        double vy = body.getVel().getY() * MOTION_STEPS;
+        if (vx < 0) {
+            minX[leaf] += vx;
+        } else {
+            maxX[leaf] += vx;
+        }
+        if (vy < 0) {
+            minY[leaf] += vy;
+        } else {
+            maxY[leaf] += vy;
+        }
+    }
+
+    /**
+     * insertLeaf: Places a leaf next to the node that grows the tree the least,
+     * then rebalances the nodes above it
+     *
+     * @param leaf the leaf to insert
+     */
+    private void insertLeaf(int leaf) {
+        left[leaf] = NULL;
+        right[leaf] = NULL;
+        height[leaf] = 0;
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        // walk down to the best sibling, using the perimeter of the boxes as the cost
+        int index = root;
+        while (left[index] != NULL) {
+            int l = left[index];
+            int r = right[index];
+            double perimeter = perimeter(index);
+            double combined = unionPerimeter(index, leaf);
+
+            // cost of making a new parent for this node and the leaf
+            double cost = 2 * combined;
+
+            // cost of pushing the leaf further down, which grows this node
+            double inheritance = 2 * (combined - perimeter);
+            double costLeft = descendCost(l, leaf) + inheritance;
+            double costRight = descendCost(r, leaf) + inheritance;
+
+            if (cost < costLeft && cost < costRight) {
+                break;
+            }
+            index = costLeft < costRight ? l : r;
+        }
+        int sibling = index;
+
+        // make a new parent for the sibling and the leaf
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        nodeBody[newParent] = null;
+        setUnion(newParent, sibling, leaf);
+        height[newParent] = height[sibling] + 1;
+        if (oldParent != NULL) {
+            if (left[oldParent] == sibling) {
+                left[oldParent] = newParent;
+            } else {
+                right[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        left[newParent] = sibling;
+        right[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refitUpwards(parent[leaf]);
+    }
+
+    /**
+     * removeLeaf: Takes a leaf out of the tree, putting its sibling in place of
+     * their parent, then rebalances the nodes above it
+     *
+     * @param leaf the leaf to remove
+     */
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = left[p] == leaf ? right[p] : left[p];
+        if (grandParent != NULL) {
+            if (left[grandParent] == p) {
+                left[grandParent] = sibling;
+            } else {
+                right[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(p);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(p);
+        }
+    }
+
+    /**
+     * refitUpwards: Rebalances a node and every node above it, and updates their
+     * boxes and heights
+     *
+     * @param index the lowest node to refit
+     */
+    private void refitUpwards(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            int l = left[index];
+            int r = right[index];
+            height[index] = 1 + Math.max(height[l], height[r]);
+            setUnion(index, l, r);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * balance: Rotates a node if one of its children is more than one level
+     * taller than the other
+     *
+     * @param a the node to balance
+     * @return the node now in the place of a
+     */
+    private int balance(int a) {
+        if (left[a] == NULL || height[a] < 2) {
+            return a;
+        }
+        int b = left[a];
+        int c = right[a];
+        int difference = height[c] - height[b];
+
+        // rotate c up
+        if (difference > 1) {
+            int f = left[c];
+            int g = right[c];
+            left[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+            if (height[f] > height[g]) {
+                right[c] = f;
+                right[a] = g;
+                parent[g] = a;
+            } else {
+                right[c] = g;
+                right[a] = f;
+                parent[f] = a;
+            }
+            setUnion(a, b, right[a]);
+            height[a] = 1 + Math.max(height[b], height[right[a]]);
+            setUnion(c, a, right[c]);
+            height[c] = 1 + Math.max(height[a], height[right[c]]);
+            return c;
+        }
+
+        // rotate b up
+        if (difference < -1) {
+            int d = left[b];
+            int e = right[b];
+            left[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+            if (height[d] > height[e]) {
+                right[b] = d;
+                left[a] = e;
+                parent[e] = a;
+            } else {
+                right[b] = e;
+                left[a] = d;
+                parent[d] = a;
+            }
+            setUnion(a, left[a], c);
+            height[a] = 1 + Math.max(height[left[a]], height[c]);
+            setUnion(b, a, right[b]);
+            height[b] = 1 + Math.max(height[a], height[right[b]]);
+            return b;
+        }
+        return a;
+    }
+
+    /**
+     * replaceChild: Points a parent at a new child in place of an old one, or
+     * makes the new child the root if there is no parent
+     *
+     * @param p        the parent, or NULL
+     * @param oldChild the child being replaced
+     * @param newChild the child taking its place
+     */
+    private void replaceChild(int p, int oldChild, int newChild) {
+        if (p == NULL) {
+            root = newChild;
+        } else if (left[p] == oldChild) {
+            left[p] = newChild;
+        } else {
+            right[p] = newChild;
+        }
+    }
+
+    /**
+     * descendCost: Finds the cost of placing a leaf somewhere below a node
+     *
+     * @param node the node
+     * @param leaf the leaf being inserted
+     * @return the perimeter the node would have with the leaf, less its current
+     *         perimeter if it is not a leaf
+     */
+    private double descendCost(int node, int leaf) {
+        double combined = unionPerimeter(node, leaf);
+        return left[node] == NULL ? combined : combined - perimeter(node);
+    }
+
+    /**
+     * perimeter: Finds the perimeter of the box of a node
+     *
+     * @param node the node
+     * @return the perimeter
+     */
+    private double perimeter(int node) {
+        return 2 * (maxX[node] - minX[node] + maxY[node] - minY[node]);
+    }
+
+    /**
+     * unionPerimeter: Finds the perimeter of the box around two nodes
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return the perimeter
+     */
+    private double unionPerimeter(int a, int b) {
+        double w = Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]);
+        double h = Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+        return 2 * (w + h);
+    }
+
+    /**
+     * setUnion: Sets the box of a node to the box around two other nodes
+     *
+     * @param node the node to set
+     * @param a    the first node
+     * @param b    the second node
+     */
+    private void setUnion(int node, int a, int b) {
+        minX[node] = Math.min(minX[a], minX[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+    }
+
+    /**
+     * allocateNode: Takes an unused node, growing the arrays if there is none
+     *
+     * @return the node
+     */
+    private int allocateNode() {
+        if (freeList == NULL) {
+            grow(capacity * 2);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        left[node] = NULL;
+        right[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    /**
+     * freeNode: Returns a node to the unused nodes
+     *
+     * @param node the node
+     */
+    private void freeNode(int node) {
+        nodeBody[node] = null;
+        height[node] = -1;
+        parent[node] = freeList;
+        freeList = node;
+    }
+
+    /**
+     * grow: Makes room for more nodes, chaining the new ones into the unused
+     * nodes
+     *
+     * @param newCapacity the number of nodes to make room for
+     */
+    private void grow(int newCapacity) {
+        if (capacity == 0) {
+            minX = new double[newCapacity];
+            maxX = new double[newCapacity];
+            minY = new double[newCapacity];
+            maxY = new double[newCapacity];
+            parent = new int[newCapacity];
+            left = new int[newCapacity];
+            right = new int[newCapacity];
+            height = new int[newCapacity];
+            nodeBody = new Body[newCapacity];
+        } else {
+            minX = Arrays.copyOf(minX, newCapacity);
+            maxX = Arrays.copyOf(maxX, newCapacity);
+            minY = Arrays.copyOf(minY, newCapacity);
+            maxY = Arrays.copyOf(maxY, newCapacity);
+            parent = Arrays.copyOf(parent, newCapacity);
+            left = Arrays.copyOf(left, newCapacity);
+            right = Arrays.copyOf(right, newCapacity);
+            height = Arrays.copyOf(height, newCapacity);
+            nodeBody = Arrays.copyOf(nodeBody, newCapacity);
+        }
+        // every node can be on the traversal stack at most once
+        stack = new int[newCapacity];
+
+        freeList = NULL;
+        for (int i = newCapacity - 1; i >= capacity; i--) {
+            parent[i] = freeList;
+            height[i] = -1;
+            freeList = i;
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * enterBox: Finds where a ray enters the box of a node grown by a radius, using
+     * the slab method
+     *
+     * @param node   the node
+     * @param sx     the x coordinate of the start
+     * @param sy     the y coordinate of the start
+     * @param dx     the x component of the cast
+     * @param dy     the y component of the cast
+     * @param radius the amount to grow the box by
+     * @return the fraction of the cast where it enters the box, or infinity if it
+     *         misses
+     */
+    private double enterBox(int node, double sx, double sy, double dx, double dy, double radius) {
+        double tMin = 0;
+        double tMax = Double.POSITIVE_INFINITY;
+
+        // x slab
+        double lo = minX[node] - radius;
+        double hi = maxX[node] + radius;
+        if (dx == 0) {
+            if (sx < lo || sx > hi) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (lo - sx) / dx;
+            double t2 = (hi - sx) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // y slab
+        lo = minY[node] - radius;
+        hi = maxY[node] + radius;
+        if (dy == 0) {
+            if (sy < lo || sy > hi) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (lo - sy) / dy;
+            double t2 = (hi - sy) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+}
@@ -0,0 +1,199 @@
+/**
+ File Name: Camera.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class represents the view of the world shown on the screen. The point of the world at the centre
+ of the camera is drawn at the centre of the screen, and the world is scaled by the zoom. The camera can be panned,
+ zoomed about a point on the screen, or made to follow a body. The view is copied into each render snapshot, which
+ then leaves out the bodies and particles outside it and counts the bodies too small to see in its density map.
+ */
+
+public class Camera {
+
+    /* FIELDS */
+    private static final double MIN_ZOOM = 0.01; // class field: the furthest the camera can zoom out
+    private static final double MAX_ZOOM = 100; // class field: the furthest the camera can zoom in
+    private double centerX; // instance field: x coordinate of the world point at the centre of the screen
+    private double centerY; // instance field: y coordinate of the world point at the centre of the screen
+    private double zoom; // instance field: screen pixels per world unit
+    private int viewWidth; // instance field: width of the screen area
+    private int viewHeight; // instance field: height of the screen area
+    private Body followed; // instance field: the body kept at the centre, or null
+    private double lodThreshold; // instance field: bodies narrower than this many pixels are drawn as a density map
+    private static final double DEFAULT_LOD_THRESHOLD = 2; // class field: bodies under this width would draw nothing
+
+    /* ACCESSORS */
+
+    /**
+     * @return x coordinate of the world point at the centre of the screen
+     */
+    public synchronized double getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * @return y coordinate of the world point at the centre of the screen
+     */
+    public synchronized double getCenterY() {
+        return centerY;
+    }
+
+    /**
+     * @return screen pixels per world unit
+     */
+    public synchronized double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * @return the body kept at the centre, or null
+     */
+    public synchronized Body getFollowed() {
+        return followed;
+    }
+
+    /**
+     * @return bodies narrower than this many pixels are drawn as a density map
+     */
+    public synchronized double getLodThreshold() {
+        return lodThreshold;
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param lodThreshold bodies narrower than this many pixels are drawn as a
+     *                     density map, or 0 to draw every body as a shape
+     */
+    public synchronized void setLodThreshold(double lodThreshold) {
+        this.lodThreshold = lodThreshold;
+    }
+
+    /**
+     * @param centerX x coordinate of the world point at the centre of the screen
+     * @param centerY y coordinate of the world point at the centre of the screen
+     */
+    public synchronized void setCenter(double centerX, double centerY) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.followed = null;
+    }
+
+    /**
+     * @param zoom screen pixels per world unit, limited to the allowed range
+     */
+    public synchronized void setZoom(double zoom) {
+        this.zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    }
+
+    /**
+     * @param viewWidth  width of the screen area
+     * @param viewHeight height of the screen area
+     */
+    public synchronized void setViewport(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * Camera: Creates a camera over a screen area which shows the world
+     * unscaled, with world point (0, 0) at the top left corner
+     *
+     * @param viewWidth  width of the screen area
+     * @param viewHeight height of the screen area
+     */
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.centerX = viewWidth / 2.0;
+        this.centerY = viewHeight / 2.0;
+        this.zoom = 1;
+        this.lodThreshold = DEFAULT_LOD_THRESHOLD;
+    }
+
+    /* METHODS */
+
+    /**
+     * pan: Moves the camera by a distance on the screen, so the world moves with
+     * the mouse when dragged. Stops following a body.
+     *
+     * @param dx pixels moved right
+     * @param dy pixels moved down
+     */
+    public synchronized void pan(double dx, double dy) {
+        centerX -= dx / zoom;
+        centerY -= dy / zoom;
+        followed = null;
+    }
+
+    /**
+     * zoomAt: Zooms by a factor, keeping the world point under a screen point in
+     * the same place
+     *
+     * @param factor  how much to multiply the zoom by
+     * @param screenX x coordinate of the screen point
+     * @param screenY y coordinate of the screen point
+     */
+    public synchronized void zoomAt(double factor, double screenX, double screenY) {
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        setZoom(zoom * factor);
+        if (followed == null) {
+            centerX = worldX - (screenX - viewWidth / 2.0) / zoom;
+            centerY = worldY - (screenY - viewHeight / 2.0) / zoom;
+        }
+    }
+
+    /**
+     * follow: Keeps a body at the centre of the screen until the camera is
+     * panned or moved, or the body is destroyed
+     *
+     * @param body the body to follow, or null to stop following
+     */
+    public synchronized void follow(Body body) {
+        this.followed = body;
+    }
+
+    /**
+     * toWorldX: Converts an x coordinate on the screen to the world
+     *
+     * @param screenX x coordinate on the screen
+     * @return x coordinate in the world
+     */
+    public synchronized double toWorldX(double screenX) {
+        return centerX + (screenX - viewWidth / 2.0) / zoom;
+    }
+
+    /**
+     * toWorldY: Converts a y coordinate on the screen to the world
+     *
+     * @param screenY y coordinate on the screen
+     * @return y coordinate in the world
+     */
+    public synchronized double toWorldY(double screenY) {
+        return centerY + (screenY - viewHeight / 2.0) / zoom;
+    }
+
+    /**
+     * applyTo: Moves the camera onto the body it follows and copies the view
+     * into a render snapshot. Called on the simulation thread, where the body can
+     * be read safely.
+     *
+     * @param snapshot the snapshot being filled
+     */
+    public synchronized void applyTo(RenderSnapshot snapshot) {
+        if (followed != null) {
+            if (followed.isDestroyed()) {
+                followed = null;
+            } else {
+                centerX = followed.getPos().getX();
+                centerY = followed.getPos().getY();
+            }
+        }
+        snapshot.setView(centerX, centerY, zoom, viewWidth, viewHeight);
+        snapshot.setLodThreshold(lodThreshold);
+    }
+
+}
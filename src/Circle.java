@@ -61,10 +61,32 @@ public class Circle extends Body {
      */
     @Override
     public void draw(Graphics g) { // a temporary draw method
-        g.setColor(Color.RED);
+        g.setColor(getColor());
         g.fillOval((int) (pos.getX() - radius), (int) (pos.getY() - radius), (int) radius * 2, (int) radius * 2);
     }
 
+    /**
+     * getColor:
+     * Retrieves the colour the Circle is drawn with
+     *
+     * @return the colour
+     */
+    @Override
+    public Color getColor() {
+        return Color.RED;
+    }
+
+    /**
+     * addToSnapshot:
+     * Adds the Circle to a render snapshot
+     *
+     * @param snapshot the snapshot being filled
+     */
+    @Override
+    public void addToSnapshot(RenderSnapshot snapshot) {
+        snapshot.addCircle(pos.getX(), pos.getY(), radius, getColor());
+    }
+
     /**
      * calcArea:
      * calculates area of Circle
@@ -99,6 +121,20 @@ public class Circle extends Body {
         return new double[] { pos.getX() - radius, pos.getX() + radius, pos.getY() - radius, pos.getY() + radius };
     }
 
+    /**
+     * getMaxMin:
+     * stores maximum and minimum points of Circle circumference
+     *
+     * @param out array set to [min x, max x, min y, max y]
+     */
+    @Override
+    public void getMaxMin(double[] out) {
+        out[0] = pos.getX() - radius;
+        out[1] = pos.getX() + radius;
+        out[2] = pos.getY() - radius;
+        out[3] = pos.getY() + radius;
+    }
+
     /**
      * toString:
      * organizes Circle properties into a String
@@ -6,6 +6,7 @@
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class CollisionDetector {
 
@@ -15,6 +16,9 @@ public class CollisionDetector {
     private double overlap;
     private Vec normal;
     private ArrayList<Vec> contactPoints;
+    private Vec[] contactStorage; // reused contact point vectors
+    private Vec normalStorage; // reused collision normal vector
+    private double[] box1, box2; // reused bounding boxes of the two bodies
 
     /* ACCESSORS & MUTATORS */
 
@@ -63,11 +67,50 @@ public class CollisionDetector {
      * @param body2 the second body
      */
     public CollisionDetector(Body body1, Body body2) {
+        this.contactPoints = new ArrayList<Vec>();
+        this.contactStorage = new Vec[] { new Vec(), new Vec() };
+        this.normalStorage = new Vec();
+        this.box1 = new double[4];
+        this.box2 = new double[4];
+        reset(body1, body2);
+    }
+
+    /* METHODS */
+
+    /**
+     * reset:
+     * Prepares this detector to test a new pair of bodies, so that it can be
+     * reused instead of creating a new one
+     *
+     * @param body1 the first body
+     * @param body2 the second body
+     */
+    public void reset(Body body1, Body body2) {
         this.body1 = body1;
         this.body2 = body2;
+        this.overlap = 0;
+        this.normal = null;
+        this.contactPoints.clear();
     }
 
-    /* METHODS */
+    /**
+     * addContactPoint:
+     * Stores a contact point using one of the reused vectors
+     *
+     * @param x the x coordinate of the contact point
+     * @param y the y coordinate of the contact point
+     */
+    private void addContactPoint(double x, double y) {
+        int i = contactPoints.size();
+        if (i == contactStorage.length) {
+            contactStorage = Arrays.copyOf(contactStorage, i * 2);
+            for (int j = i; j < contactStorage.length; j++) {
+                contactStorage[j] = new Vec();
+            }
+        }
+        contactStorage[i].set(x, y);
+        contactPoints.add(contactStorage[i]);
+    }
 
     /**
      * aabb:
@@ -76,8 +119,10 @@ public class CollisionDetector {
      * @return if the bounding boxes of the two bodies are colliding
      */
     private boolean aabb() {
-        double[] n1 = body1.getMaxMin();
-        double[] n2 = body2.getMaxMin();
+        double[] n1 = box1;
+        double[] n2 = box2;
+        body1.getMaxMin(n1);
+        body2.getMaxMin(n2);
         return n1[0] < n2[1] && n1[1] > n2[0] && n1[2] < n2[3] && n1[3] > n2[2];
     }
 
@@ -115,11 +160,7 @@ public class CollisionDetector {
 
         // handle polygon and polygon collisions
         if (body1 instanceof ConvexPolygon && body2 instanceof ConvexPolygon && checkCollisionPolygonPolygon()) {
-            collisionPointsPolygonPolygon();
-            if (this.contactPoints == null) {
-                return false;
-            }
-            return true;
+            return collisionPointsPolygonPolygon();
         }
 
         return false;
@@ -192,9 +233,11 @@ public class CollisionDetector {
             }
         }
 
-        // store the normal and overlap
+        // store the normal and overlap, copying the normal since the axes belong to
+        // the polygons
         this.overlap = overlap;
-        this.normal = collisionNormal;
+        this.normal = normalStorage;
+        this.normal.set(collisionNormal);
 
         // do one last check to make sure the normal is pointing in the right direction
         Vec dir = body1.getPos().getSub(body2.getPos());
@@ -275,8 +318,10 @@ public class CollisionDetector {
             smallest = axis;
         }
 
-        // store the normal and overlap
-        this.normal = smallest;
+        // store the normal and overlap, copying the normal since the axes belong to
+        // the polygon
+        this.normal = normalStorage;
+        this.normal.set(smallest);
         this.overlap = overlap;
 
         // do one last check to make sure the normal is pointing in the right direction
@@ -317,11 +362,10 @@ public class CollisionDetector {
             this.normal = diff;
 
             // store the contact points
-            this.contactPoints = new ArrayList<Vec>();
-            Vec cp1 = c1.getPos().getAdd(diff.getMult(c1.getRadius()));
-            Vec cp2 = c2.getPos().getSub(diff.getMult(c2.getRadius()));
-            this.contactPoints.add(cp1);
-            this.contactPoints.add(cp2);
+            addContactPoint(c1.getPos().getX() + diff.getX() * c1.getRadius(),
+                    c1.getPos().getY() + diff.getY() * c1.getRadius());
+            addContactPoint(c2.getPos().getX() - diff.getX() * c2.getRadius(),
+                    c2.getPos().getY() - diff.getY() * c2.getRadius());
 
             return true;
         }
@@ -340,15 +384,15 @@ public class CollisionDetector {
     private static double[] projection(ConvexPolygon convexPolygon, Vec axis) {
 
         // initialize temporary variables
-        Vec[] vertices = convexPolygon.getVertices();
-        double min = axis.dot(Vec.getAdd(vertices[0], convexPolygon.getPos()));
+        Vec[] vertices = convexPolygon.getWorldVertices();
+        double min = axis.dot(vertices[0]);
         double max = min;
 
         // loop through all the vertices in the polygon
         for (int i = 1; i < vertices.length; i++) {
 
             // project vertices onto axis
-            double p = axis.dot(Vec.getAdd(vertices[i], convexPolygon.getPos()));
+            double p = axis.dot(vertices[i]);
 
             // checks if it is the maximum or minimum
             if (p < min) {
@@ -395,34 +439,14 @@ public class CollisionDetector {
 
     /**
      * getAxesPolygon:
-     * This method gets all the normals of a convex polygon
+     * This method gets all the normals of a convex polygon. The normals are
+     * precomputed by the polygon and must not be modified.
      *
      * @param convexPolygon a convex polygon
      * @return all the axis of the convex polygon stored in a vector array
      */
     private static Vec[] getAxesPolygon(ConvexPolygon convexPolygon) {
-
-        // initialize temporary variables
-        Vec[] vertices = convexPolygon.getVertices();
-        Vec[] axes = new Vec[vertices.length];
-
-        // loop over the vertices
-        for (int i = 0; i < vertices.length; i++) {
-
-            // get two adjacent vertices
-            Vec p1 = vertices[i];
-            Vec p2 = vertices[(i + 1) % vertices.length];
-
-            // subtract the two to get the edge vector
-            Vec edge = Vec.getSub(p1, p2);
-
-            // get the perpendicular vector
-            Vec normal = edge.getPerp();
-            normal.normalize();
-            axes[i] = normal;
-        }
-
-        return axes;
+        return convexPolygon.getNormals();
     }
 
     /**
@@ -438,12 +462,12 @@ public class CollisionDetector {
     private static Vec getAxisCircle(ConvexPolygon convexPolygon, Vec circleCenter) {
 
         // initialize temporary variables
-        Vec[] vertices = convexPolygon.getVertices();
-        Vec closestVertex = vertices[0].getAdd(convexPolygon.getPos());
+        Vec[] vertices = convexPolygon.getWorldVertices();
+        Vec closestVertex = vertices[0];
 
         // loop through all the vertices
         for (int i = 1; i < vertices.length; i++) {
-            Vec vertex = vertices[i].getAdd(convexPolygon.getPos());
+            Vec vertex = vertices[i];
 
             // if this vertex is closer, then set the closest vertex to this vertex
             if (vertex.distanceSq(circleCenter) < closestVertex.distanceSq(circleCenter)) {
@@ -464,15 +488,15 @@ public class CollisionDetector {
         // initialize temporary variables
         ConvexPolygon p = (ConvexPolygon) body1;
         Circle c = (Circle) body2;
-        Vec[] vertices = p.getVertices();
+        Vec[] vertices = p.getWorldVertices();
         Vec closestPoint = null;
 
         // loop through all the vertices of the convex polygon
         for (int i = 0; i < vertices.length; i++) {
 
             // get the position of two adjacent vertices
-            Vec v1 = vertices[i].getAdd(p.getPos());
-            Vec v2 = vertices[(i + 1) % vertices.length].getAdd(p.getPos());
+            Vec v1 = vertices[i];
+            Vec v2 = vertices[(i + 1) % vertices.length];
 
             // find the closest point on this edge to the center of the circle
             Vec point = closestPointOnSegment(c.getPos(), v1, v2);
@@ -483,9 +507,8 @@ public class CollisionDetector {
             }
         }
 
-        // store the contact point
-        this.contactPoints = new ArrayList<Vec>();
-        this.contactPoints.add(closestPoint);
+        // store the contact point, copying it in case it is a vertex of the polygon
+        addContactPoint(closestPoint.getX(), closestPoint.getY());
     }
 
     /**
@@ -493,11 +516,12 @@ public class CollisionDetector {
      * This method finds all contact points in a convex polygon and convex polygon
      * collision. It uses an clipping algorithm to maximize efficiency.
      *
+     * @return false if the clipping operation has failed
      * @see <a href=
      *      "https://dyn4j.org/2011/11/contact-points-using-clipping/">Clipping
      *      Algorithm Explanation</a>
      */
-    private void collisionPointsPolygonPolygon() {
+    private boolean collisionPointsPolygonPolygon() {
 
         // find the edges closest to the collision
         Vec[] e1 = getSignificantEdges((ConvexPolygon) body1, normal);
@@ -526,7 +550,7 @@ public class CollisionDetector {
 
         // if two points are not left, then the clipping operation has failed
         if (cp.size() < 2)
-            return;
+            return false;
 
         // project the second reference point onto the reference edge vector
         double o2 = refv.dot(ref[2]);
@@ -537,7 +561,7 @@ public class CollisionDetector {
 
         // if two points are not left, then the clipping operation has failed
         if (cp.size() < 2)
-            return;
+            return false;
 
         // compute the reference edge normal
         Vec refNorm = refv.getPerp().getReversed();
@@ -553,7 +577,223 @@ public class CollisionDetector {
             cp.remove(cp.get(0));
         }
 
-        this.contactPoints = cp;
+        for (int i = 0; i < cp.size(); i++) {
+            addContactPoint(cp.get(i).getX(), cp.get(i).getY());
+        }
+        return true;
+    }
+
+    /**
+     * shapeCast:
+     * This method finds where a circle moving from start to end first touches a
+     * body. A radius of 0 casts a ray. If the circle already overlaps the body at
+     * the start, the hit is at the start.
+     *
+     * @param body        the body to cast against
+     * @param start       the start of the cast
+     * @param end         the end of the cast
+     * @param radius      the radius of the moving circle
+     * @param maxFraction hits farther than this fraction of the cast are ignored
+     * @return the hit, or null if the body is not hit
+     */
+    public static RayCastHit shapeCast(Body body, Vec start, Vec end, double radius, double maxFraction) {
+        if (body instanceof Circle) {
+            return shapeCastCircle((Circle) body, start, end, radius, maxFraction);
+        }
+        if (body instanceof ConvexPolygon) {
+            return shapeCastPolygon((ConvexPolygon) body, start, end, radius, maxFraction);
+        }
+        return null;
+    }
+
+    /**
+     * shapeCastCircle:
+     * This method casts a circle against a circle, which is the same as casting a
+     * ray against a circle with the sum of the radii.
+     *
+     * @param circle      the circle to cast against
+     * @param start       the start of the cast
+     * @param end         the end of the cast
+     * @param radius      the radius of the moving circle
+     * @param maxFraction hits farther than this fraction of the cast are ignored
+     * @return the hit, or null if the circle is not hit
+     */
+    private static RayCastHit shapeCastCircle(Circle circle, Vec start, Vec end, double radius, double maxFraction) {
+        Vec d = end.getSub(start);
+        Vec f = start.getSub(circle.getPos());
+        double r = circle.getRadius() + radius;
+
+        // the cast starts inside the circle
+        double c = f.getLengthSq() - r * r;
+        if (c <= 0) {
+            return new RayCastHit(circle, 0, start, end, startNormal(f, d));
+        }
+
+        // solve |f + t * d| = r for the smaller t
+        double a = d.getLengthSq();
+        double b = f.dot(d);
+        double disc = b * b - a * c;
+        if (a == 0 || disc < 0) {
+            return null;
+        }
+        double t = (-b - Math.sqrt(disc)) / a;
+        if (t < 0 || t > maxFraction) {
+            return null;
+        }
+
+        Vec normal = f.getAdd(d.getMult(t));
+        normal.normalize();
+        return new RayCastHit(circle, t, start, end, normal);
+    }
+
+    /**
+     * shapeCastPolygon:
+     * This method casts a circle against a convex polygon. The polygon grown by
+     * the radius is made of its edges pushed out along their normals, joined by
+     * circles around each vertex, so the first hit is the first hit among those.
+     * A start inside the polygon or within the radius of its edges is a hit at
+     * the start.
+     *
+     * @param p           the polygon to cast against
+     * @param start       the start of the cast
+     * @param end         the end of the cast
+     * @param radius      the radius of the moving circle
+     * @param maxFraction hits farther than this fraction of the cast are ignored
+     * @return the hit, or null if the polygon is not hit
+     */
+    private static RayCastHit shapeCastPolygon(ConvexPolygon p, Vec start, Vec end, double radius,
+                                               double maxFraction) {
+
+        // initialize temporary variables
+        Vec[] vertices = p.getWorldVertices();
+        Vec[] normals = p.getNormals();
+        double dx = end.getX() - start.getX();
+        double dy = end.getY() - start.getY();
+        double best = maxFraction;
+        double bestNx = 0, bestNy = 0;
+        boolean hit = false;
+
+        // check if the start is inside the grown polygon, which is the polygon itself or any point within the radius
+        // of its boundary. Near a vertex the grown polygon is rounded, so the distance to the edges is used rather than
+        // the edges pushed out along their normals.
+        boolean insidePolygon = true;
+        Vec closest = null;
+        double closestDistSq = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < vertices.length; i++) {
+            Vec v1 = vertices[i];
+            Vec v2 = vertices[(i + 1) % vertices.length];
+            if (outwardSide(p, normals[i], v1, start) > 0) {
+                insidePolygon = false;
+            }
+            Vec point = closestPointOnSegment(start, v1, v2);
+            double distSq = point.distanceSq(start);
+            if (distSq < closestDistSq) {
+                closestDistSq = distSq;
+                closest = point;
+            }
+        }
+        if (insidePolygon) {
+            return new RayCastHit(p, 0, start, end, startNormal(start.getSub(p.getPos()), new Vec(dx, dy)));
+        }
+        if (closestDistSq <= radius * radius) {
+            return new RayCastHit(p, 0, start, end, startNormal(start.getSub(closest), new Vec(dx, dy)));
+        }
+
+        for (int i = 0; i < vertices.length; i++) {
+            Vec v1 = vertices[i];
+            Vec v2 = vertices[(i + 1) % vertices.length];
+
+            // make sure the normal points out of the polygon
+            double nx = normals[i].getX();
+            double ny = normals[i].getY();
+            if (nx * (v1.getX() - p.getPos().getX()) + ny * (v1.getY() - p.getPos().getY()) < 0) {
+                nx = -nx;
+                ny = -ny;
+            }
+
+            // cast against the edge pushed out by the radius, only from outside the pushed edge. A start between the
+            // edge and the pushed edge is beside the edge, so it can only enter through a vertex circle.
+            double side = nx * (start.getX() - v1.getX()) + ny * (start.getY() - v1.getY());
+            double denom = nx * dx + ny * dy;
+            if (side > radius && denom < 0) {
+                double t = (radius - side) / denom;
+                double qx = start.getX() + dx * t - nx * radius - v1.getX();
+                double qy = start.getY() + dy * t - ny * radius - v1.getY();
+                double ex = v2.getX() - v1.getX();
+                double ey = v2.getY() - v1.getY();
+                double s = (qx * ex + qy * ey) / (ex * ex + ey * ey);
+                if (s >= 0 && s <= 1 && t <= best) {
+                    best = t;
+                    bestNx = nx;
+                    bestNy = ny;
+                    hit = true;
+                }
+            }
+
+            // cast against the circle around the vertex
+            if (radius > 0) {
+                double fx = start.getX() - v1.getX();
+                double fy = start.getY() - v1.getY();
+                double a = dx * dx + dy * dy;
+                double b = fx * dx + fy * dy;
+                double c = fx * fx + fy * fy - radius * radius;
+                double disc = b * b - a * c;
+                if (a > 0 && disc >= 0) {
+                    double t = (-b - Math.sqrt(disc)) / a;
+                    if (t >= 0 && t <= best) {
+                        best = t;
+                        bestNx = (fx + dx * t) / radius;
+                        bestNy = (fy + dy * t) / radius;
+                        hit = true;
+                    }
+                }
+            }
+        }
+
+        if (!hit) {
+            return null;
+        }
+        return new RayCastHit(p, best, start, end, new Vec(bestNx, bestNy));
+    }
+
+    /**
+     * outwardSide:
+     * This method finds how far a point is outside the line of an edge of a
+     * polygon, measured along the normal of the edge pointing out of the polygon
+     *
+     * @param p      the polygon
+     * @param normal the normal of the edge, in either direction
+     * @param v      a vertex of the edge
+     * @param point  the point
+     * @return the distance outside the edge line, negative if the point is on the
+     *         inner side
+     */
+    private static double outwardSide(ConvexPolygon p, Vec normal, Vec v, Vec point) {
+        double nx = normal.getX();
+        double ny = normal.getY();
+        if (nx * (v.getX() - p.getPos().getX()) + ny * (v.getY() - p.getPos().getY()) < 0) {
+            nx = -nx;
+            ny = -ny;
+        }
+        return nx * (point.getX() - v.getX()) + ny * (point.getY() - v.getY());
+    }
+
+    /**
+     * startNormal:
+     * This method picks the normal reported when a cast starts inside a body
+     *
+     * @param offset the start of the cast relative to the body
+     * @param d      the direction of the cast
+     * @return the offset direction, or against the cast if there is no offset
+     */
+    private static Vec startNormal(Vec offset, Vec d) {
+        if (offset.getLengthSq() > 0) {
+            return offset.getNormalized();
+        }
+        if (d.getLengthSq() > 0) {
+            return d.getReversed().getNormalized();
+        }
+        return new Vec(0, 0);
     }
 
     /**
@@ -600,23 +840,24 @@ public class CollisionDetector {
 
         // initialize temporary variables
         double max = Double.NEGATIVE_INFINITY;
-        Vec[] vertices = convexPolygon.getVertices();
+        Vec[] vertices = convexPolygon.getWorldVertices();
         int index = 0;
 
         // find the farthest vertex in the polygon along the separation normal
         int c = vertices.length;
         for (int i = 0; i < c; i++) {
-            double projection = n.dot(Vec.getAdd(vertices[i], convexPolygon.getPos()));
+            double projection = n.dot(vertices[i]);
             if (projection > max) {
                 max = projection;
                 index = i;
             }
         }
 
-        // find the edge that is most perpendicular to the separation normal
-        Vec v = Vec.getAdd(convexPolygon.getPos(), vertices[index]);
-        Vec v1 = Vec.getAdd(convexPolygon.getPos(), vertices[index + 1 == vertices.length ? 0 : index + 1]);
-        Vec v0 = Vec.getAdd(convexPolygon.getPos(), vertices[index == 0 ? vertices.length - 1 : index - 1]);
+        // find the edge that is most perpendicular to the separation normal, copying
+        // the vertices since they belong to the polygon
+        Vec v = new Vec(vertices[index]);
+        Vec v1 = new Vec(vertices[index + 1 == vertices.length ? 0 : index + 1]);
+        Vec v0 = new Vec(vertices[index == 0 ? vertices.length - 1 : index - 1]);
 
         // Find edge vectors
         Vec l = Vec.getSub(v, v1);
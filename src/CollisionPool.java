@@ -0,0 +1,126 @@
+/**
+ * File Name: CollisionPool.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class keeps the collision detectors and collision resolvers used during a step, so that they can
+ * be reset and reused on the next step instead of being created for every pair of bodies.
+ */
+
+import java.util.ArrayList;
+
+public class CollisionPool {
+
+    /* FIELDS */
+
+    private ArrayList<CollisionDetector> detectors; // instance field: every detector created so far
+    private ArrayList<CollisionResolver> resolvers; // instance field: every resolver created so far
+    private int usedDetectors; // instance field: the number of detectors handed out this step
+    private int usedResolvers; // instance field: the number of resolvers handed out this step
+    private long created; // instance field: the number of detectors and resolvers ever created
+    private long reused; // instance field: the number of times a detector or resolver was reused
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of detectors kept by the pool
+     */
+    public int getNumDetectors() {
+        return detectors.size();
+    }
+
+    /**
+     * @return the number of resolvers kept by the pool
+     */
+    public int getNumResolvers() {
+        return resolvers.size();
+    }
+
+    /**
+     * @return the number of detectors and resolvers ever created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the number of times a detector or resolver was reused
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * CollisionPool: Constructor that creates an empty pool
+     */
+    public CollisionPool() {
+        detectors = new ArrayList<CollisionDetector>();
+        resolvers = new ArrayList<CollisionResolver>();
+    }
+
+    /* METHODS */
+
+    /**
+     * obtainDetector: Hands out a detector for a pair of bodies. It stays in use
+     * until the pool is reclaimed.
+     *
+     * @param body1 the first body
+     * @param body2 the second body
+     * @return the detector
+     */
+    public CollisionDetector obtainDetector(Body body1, Body body2) {
+        if (usedDetectors < detectors.size()) {
+            CollisionDetector col = detectors.get(usedDetectors++);
+            col.reset(body1, body2);
+            reused++;
+            return col;
+        }
+        CollisionDetector col = new CollisionDetector(body1, body2);
+        detectors.add(col);
+        usedDetectors++;
+        created++;
+        return col;
+    }
+
+    /**
+     * returnLastDetector: Gives back the detector handed out last, so that it can
+     * be reused straight away. This is used when the bodies are not colliding.
+     */
+    public void returnLastDetector() {
+        if (usedDetectors > 0) {
+            usedDetectors--;
+        }
+    }
+
+    /**
+     * obtainResolver: Hands out a resolver for a collision. It stays in use until
+     * the pool is reclaimed.
+     *
+     * @param col the collision detector storing the collision
+     * @return the resolver
+     */
+    public CollisionResolver obtainResolver(CollisionDetector col) {
+        if (usedResolvers < resolvers.size()) {
+            CollisionResolver res = resolvers.get(usedResolvers++);
+            res.reset(col);
+            reused++;
+            return res;
+        }
+        CollisionResolver res = new CollisionResolver(col);
+        resolvers.add(res);
+        usedResolvers++;
+        created++;
+        return res;
+    }
+
+    /**
+     * reclaim: Takes back every detector and resolver handed out, at the start of
+     * a new step. Anything obtained before must no longer be used.
+     */
+    public void reclaim() {
+        usedDetectors = 0;
+        usedResolvers = 0;
+    }
+
+}
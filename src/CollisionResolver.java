@@ -2,7 +2,7 @@
  * File Name: CollisionResolver.java
  * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
  * Date: January 17, 2022
- * Description: This class is responsible for resolving collisions between two bodies.
+ * Description: This class is responsible for preparing the collision between two bodies to be resolved.
  */
 import java.util.ArrayList;
 
@@ -13,20 +13,26 @@ public class CollisionResolver {
     private static final double ALLOWED_PENETRATION = 0.1;
     private static final double BIAS_FACTOR = 0.01;
     private static final double THRESHOLD_BOUNCE_VELOCITY = -0.1;
+    private static final double MAX_CONDITION_NUMBER = 1000; // above this the 2x2 block is too ill-conditioned
 
     private Body body1;
     private Body body2;
     private CollisionDetector col;
     private ArrayList<Vec> contacts;
     private int len;
-    private double massNormal;
-    private double massTangent;
+    private Vec normal;
+    private Vec tangent;
+    private Vec[] ra; // radius vectors from body1 to each contact
+    private Vec[] rb; // radius vectors from body2 to each contact
+    private double[] massNormal; // effective mass along the normal, per contact
+    private double[] massTangent; // effective mass along the tangent, per contact
+    private double[] elasticityBias; // restitution target velocity, per contact
+    private double penetration; // overlap beyond the allowed penetration
     private double bias;
-    private double pt;
-    private double pn;
-    private double elasticityBias;
     private double friction;
     private double maxImpulse;
+    private double[] blockMatrix; // [k11, k12, k22, invK11, invK12, invK22], null if not block solved
+    private double[] blockStorage; // reused storage for the block matrix
 
     /* ACCESSORS & MUTATORS */
 
@@ -86,6 +92,87 @@ public class CollisionResolver {
         this.maxImpulse = maxImpulse;
     }
 
+    /**
+     * @return the collision normal
+     */
+    public Vec getNormal() {
+        return normal;
+    }
+
+    /**
+     * @return the radius vectors from body1 to each contact, only the first
+     *         getNumContacts() are used
+     */
+    public Vec[] getRa() {
+        return ra;
+    }
+
+    /**
+     * @return the radius vectors from body2 to each contact, only the first
+     *         getNumContacts() are used
+     */
+    public Vec[] getRb() {
+        return rb;
+    }
+
+    /**
+     * @return the effective normal mass of each contact
+     */
+    public double[] getMassNormal() {
+        return massNormal;
+    }
+
+    /**
+     * @return the effective tangent mass of each contact
+     */
+    public double[] getMassTangent() {
+        return massTangent;
+    }
+
+    /**
+     * @return the restitution target velocity of each contact
+     */
+    public double[] getElasticityBias() {
+        return elasticityBias;
+    }
+
+    /**
+     * @return the overlap beyond the allowed penetration
+     */
+    public double getPenetration() {
+        return penetration;
+    }
+
+    /**
+     * @return the penetration bias velocity
+     */
+    public double getBias() {
+        return bias;
+    }
+
+    /**
+     * @return the combined friction
+     */
+    public double getFriction() {
+        return friction;
+    }
+
+    /**
+     * @return the 2x2 normal constraint matrix and its inverse stored as [k11, k12,
+     *         k22, invK11, invK12, invK22], or null if the contacts are solved
+     *         one at a time
+     */
+    public double[] getBlockMatrix() {
+        return blockMatrix;
+    }
+
+    /**
+     * @return the number of contact points
+     */
+    public int getNumContacts() {
+        return len;
+    }
+
     /* CONSTRUCTORS */
 
     /**
@@ -94,142 +181,133 @@ public class CollisionResolver {
      * @param col the collision detector object storing all collision info
      */
     public CollisionResolver(CollisionDetector col) {
+        this.tangent = new Vec();
+        this.ra = new Vec[0];
+        this.rb = new Vec[0];
+        this.massNormal = new double[0];
+        this.massTangent = new double[0];
+        this.elasticityBias = new double[0];
+        this.blockStorage = new double[6];
+        reset(col);
+    }
+
+    /* METHODS */
+
+    /**
+     * reset: Prepares this resolver for a new collision, so that it can be reused
+     * instead of creating a new one. The per contact arrays are only replaced if
+     * they are too small, so they may be longer than the number of contacts.
+     *
+     * @param col the collision detector object storing all collision info
+     */
+    public void reset(CollisionDetector col) {
         this.body1 = col.getObj1();
         this.body2 = col.getObj2();
         this.col = col;
         this.contacts = col.getContactPoints();
         this.len = this.contacts.size();
-        this.pt = 0;
-        this.pn = 0;
+        this.normal = col.getNormal();
+        this.tangent.set(this.normal.getY(), -this.normal.getX());
+        if (this.ra.length < this.len) {
+            this.ra = new Vec[this.len];
+            this.rb = new Vec[this.len];
+            for (int i = 0; i < this.len; i++) {
+                this.ra[i] = new Vec();
+                this.rb[i] = new Vec();
+            }
+            this.massNormal = new double[this.len];
+            this.massTangent = new double[this.len];
+            this.elasticityBias = new double[this.len];
+        }
         this.friction = Math.sqrt(Math.pow(body1.getFriction(), 2) + Math.pow(body2.getFriction(), 2));
         this.maxImpulse = 0;
+        // the bias factor prevents bodies from sinking
+        this.penetration = -Math.min(0, -col.getOverlap() + ALLOWED_PENETRATION);
+        this.bias = BIAS_FACTOR * this.penetration;
+        double e = Math.min(body1.getElasticity(), body2.getElasticity());
         // Precompute normal mass, tangent mass, and bias
         // loop through all collision points
         for (int i = 0; i < this.len; i++) {
             Vec contact = this.contacts.get(i);
-            // find radius vectors
-            Vec ra = Vec.getSub(contact, body1.getPos());
-            Vec rb = Vec.getSub(contact, body2.getPos());
+            // find radius vectors, the bodies do not move while the collision is resolved
+            ra[i].set(contact.getX() - body1.getPos().getX(), contact.getY() - body1.getPos().getY());
+            rb[i].set(contact.getX() - body2.getPos().getX(), contact.getY() - body2.getPos().getY());
             // calculate the mass normal value for the two objects in the collision
-            double rna = Vec.dot(ra, col.getNormal());
-            double rnb = Vec.dot(rb, col.getNormal());
+            double rna = Vec.dot(ra[i], normal);
+            double rnb = Vec.dot(rb[i], normal);
             double kNormal = body1.getInvMass() + body2.getInvMass()
-                    + (Vec.dot(ra, ra) - rna * rna) * body1.getInvInertia()
-                    + (Vec.dot(rb, rb) - rnb * rnb) * body2.getInvInertia();
-            this.massNormal = 1.0 / kNormal;
+                    + (Vec.dot(ra[i], ra[i]) - rna * rna) * body1.getInvInertia()
+                    + (Vec.dot(rb[i], rb[i]) - rnb * rnb) * body2.getInvInertia();
+            this.massNormal[i] = 1.0 / kNormal;
             // calculate the mass tangent value for the two objects in the collision
-            Vec tangent = Vec.crossProduct(col.getNormal(), 1);
-            double rta = Vec.dot(ra, tangent);
-            double rtb = Vec.dot(rb, tangent);
+            double rta = Vec.dot(ra[i], tangent);
+            double rtb = Vec.dot(rb[i], tangent);
             double kTangent = body1.getInvMass() + body2.getInvMass()
-                    + (Vec.dot(ra, ra) - rta * rta) * body1.getInvInertia()
-                    + (Vec.dot(rb, rb) - rtb * rtb) * body2.getInvInertia();
-            this.massTangent = 1.0 / kTangent;
-            // the bias factor prevents bodies from sinking
-            this.bias = -BIAS_FACTOR * Math.min(0, -col.getOverlap() + ALLOWED_PENETRATION);
+                    + (Vec.dot(ra[i], ra[i]) - rta * rta) * body1.getInvInertia()
+                    + (Vec.dot(rb[i], rb[i]) - rtb * rtb) * body2.getInvInertia();
+            this.massTangent[i] = 1.0 / kTangent;
             // calculate the elasticity constant
-            Vec rv = Vec.getSub(Vec.getAdd(body2.getVel(), Vec.crossProduct(body2.getAngularVelocity(), rb)),
-                    Vec.getAdd(body1.getVel(), Vec.crossProduct(body1.getAngularVelocity(), ra)));
-            double vn = rv.dot(col.getNormal());
-            double e = Math.min(body1.getElasticity(), body2.getElasticity());
+            double vn = relativeNormalVelocity(i);
             if (vn < THRESHOLD_BOUNCE_VELOCITY) {
-                this.elasticityBias = -e * vn;
+                this.elasticityBias[i] = -e * vn;
             } else {
-                this.elasticityBias = 0;
+                this.elasticityBias[i] = 0;
             }
         }
+        prepareBlockSolver();
     }
 
-    /* METHODS */
-
     /**
-     * applyImpulse: This method applies impulses on both bodies to resolve the
-     * collision
+     * prepareBlockSolver: This method builds the 2x2 normal constraint matrix for
+     * a two point polygon manifold. The block solver is only used if the matrix is
+     * well conditioned, otherwise the contacts are solved one at a time.
      */
-    public void applyImpulse() {
-
-        // loop through all collision points
-        for (int i = 0; i < this.len; i++) {
-
-            Vec contact = this.contacts.get(i);
-
-            // find the radius vectors
-            Vec ra = Vec.getSub(contact, body1.getPos());
-            Vec rb = Vec.getSub(contact, body2.getPos());
-
-            // find relative velocity between the two objects
-            Vec rv = Vec.getSub(Vec.getAdd(body2.getVel(), Vec.crossProduct(body2.getAngularVelocity(), rb)),
-                    Vec.getAdd(body1.getVel(), Vec.crossProduct(body1.getAngularVelocity(), ra)));
-
-            // find velocity along normal
-            double vn = rv.dot(col.getNormal());
-
-            // calculate current normal impulse
-            double dPn = massNormal * (-vn + bias + this.elasticityBias);
-
-            // save max impulse
-            maxImpulse = Math.max(maxImpulse, dPn);
-
-            // store original normal impulse
-            double Pn0 = pn;
-
-            // ensure that the normal impulse is greater than 0, so that the bodies are
-            // separating
-            pn = Math.max(Pn0 + dPn, 0);
-
-            // calculate change in normal impulse
-            dPn = pn - Pn0;
-
-            // find normal impulse vector
-            Vec Pn = col.getNormal().getMult(dPn);
-
-            // apply normal impulses
-            body1.applyImpulse(Pn.getReversed(), ra);
-            body2.applyImpulse(Pn, rb);
-
-            // recalculate relative velocity
-            rv = Vec.getSub(Vec.getAdd(body2.getVel(), Vec.crossProduct(body2.getAngularVelocity(), rb)),
-                    Vec.getAdd(body1.getVel(), Vec.crossProduct(body1.getAngularVelocity(), ra)));
-
-            // find the velocity tangent to the collision
-            Vec tangent = Vec.crossProduct(col.getNormal(), 1.0);
-            double vt = Vec.dot(rv, tangent);
-
-            // calculate the change in tangential impulse due to friction
-            double dPt = massTangent * (-vt);
-
-            // store original tangential impulse
-            double Pt0 = pt;
-
-            // calculate friction impulse
-            double maxPt = friction * this.pn;
-
-            // clamp the tangential impulse to ensure that bodies don't start increasing in
-            // speed
-            pt = clamp(Pt0 + dPt, -maxPt, maxPt);
-
-            // calculate the change in tangential impulse
-            dPt = pt - Pt0;
-
-            // find tangential impulse vector
-            Vec Pt = tangent.getMult(dPt);
+    private void prepareBlockSolver() {
+        this.blockMatrix = null;
+        if (this.len != 2 || !(body1 instanceof ConvexPolygon) || !(body2 instanceof ConvexPolygon)) {
+            return;
+        }
 
-            // apply tangential impulses
-            body1.applyImpulse(Pt.getReversed(), ra);
-            body2.applyImpulse(Pt, rb);
+        // cross products of the radius vectors with the normal
+        double rn1a = Vec.cross(ra[0], normal);
+        double rn1b = Vec.cross(rb[0], normal);
+        double rn2a = Vec.cross(ra[1], normal);
+        double rn2b = Vec.cross(rb[1], normal);
+        double invMass = body1.getInvMass() + body2.getInvMass();
+        double invI1 = body1.getInvInertia();
+        double invI2 = body2.getInvInertia();
+
+        double k11 = invMass + invI1 * rn1a * rn1a + invI2 * rn1b * rn1b;
+        double k22 = invMass + invI1 * rn2a * rn2a + invI2 * rn2b * rn2b;
+        double k12 = invMass + invI1 * rn1a * rn2a + invI2 * rn1b * rn2b;
+
+        // only use the block solver if the two contacts are independent enough
+        double det = k11 * k22 - k12 * k12;
+        if (k11 * k11 < MAX_CONDITION_NUMBER * det) {
+            this.blockMatrix = blockStorage;
+            blockMatrix[0] = k11;
+            blockMatrix[1] = k12;
+            blockMatrix[2] = k22;
+            blockMatrix[3] = k22 / det;
+            blockMatrix[4] = -k12 / det;
+            blockMatrix[5] = k11 / det;
         }
     }
 
     /**
-     * clamp: This method clamps a variable between a specified range.
+     * relativeNormalVelocity: This method finds the velocity of body2 relative to
+     * body1 at a contact point, along the normal
      *
-     * @param val the value of the variable
-     * @param min the minimum value
-     * @param max the maximum value
-     * @return the clamped value of the variable
+     * @param i the index of the contact point
+     * @return the relative normal velocity
      */
-    private static double clamp(double val, double min, double max) {
-        return Math.max(min, Math.min(max, val));
+    private double relativeNormalVelocity(int i) {
+        // v + w x r, where w x r = (-w * r.y, w * r.x)
+        double w1 = body1.getAngularVelocity();
+        double w2 = body2.getAngularVelocity();
+        double rvx = (body2.getVel().getX() - w2 * rb[i].getY()) - (body1.getVel().getX() - w1 * ra[i].getY());
+        double rvy = (body2.getVel().getY() + w2 * rb[i].getX()) - (body1.getVel().getY() + w1 * ra[i].getX());
+        return rvx * normal.getX() + rvy * normal.getY();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,555 @@
+/**
+ * File Name: ContactSolver.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class solves all the collisions of a step together. The contacts and the velocities of the
+ * colliding bodies are packed into primitive arrays so the solver iterations do not create any objects.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class ContactSolver {
+
+    /* FIELDS */
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double SPLIT_BIAS_FACTOR = 0.2; // fraction of the penetration removed per position iteration
+
+    private boolean splitImpulse; // whether penetration is resolved separately from the velocities
+
+    // body rows: the velocities of every body that takes part in a collision
+    private int numBodies;
+    private Body[] bodies;
+    private double[] vx, vy, w; // linear and angular velocities
+    private double[] pvx, pvy, pw; // pseudo velocities used only to correct positions
+    private double[] invMass, invInertia; // zero for static bodies
+    private HashMap<Body, Integer> bodyIndices; // the row of each body
+
+    // contact rows: one per contact point
+    private int numContacts;
+    private int[] bodyA, bodyB; // body rows of the two bodies
+    private double[] rax, ray, rbx, rby; // radius vectors from each body to the contact
+    private double[] nx, ny; // collision normal
+    private double[] massNormal, massTangent; // effective masses
+    private double[] velocityBias; // target separating velocity from penetration and elasticity
+    private double[] positionBias; // target pseudo velocity from penetration, used in split impulse mode
+    private double[] friction; // combined friction
+    private double[] pn, pt; // accumulated normal and tangent impulses
+    private double[] ppn; // accumulated normal pseudo impulses
+
+    // manifold rows: one per colliding pair
+    private int numManifolds;
+    private CollisionResolver[] resolvers;
+    private int[] firstContact, contactCount;
+    private double[][] blockMatrix; // [k11, k12, k22, invK11, invK12, invK22], null if not block solved
+    private double[] maxImpulse;
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of packed contact points
+     */
+    public int getNumContacts() {
+        return numContacts;
+    }
+
+    /**
+     * @return the number of packed bodies
+     */
+    public int getNumBodies() {
+        return numBodies;
+    }
+
+    /**
+     * @return whether penetration is resolved separately from the velocities
+     */
+    public boolean isSplitImpulse() {
+        return splitImpulse;
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param splitImpulse whether penetration is resolved separately from the
+     *                     velocities
+     */
+    public void setSplitImpulse(boolean splitImpulse) {
+        this.splitImpulse = splitImpulse;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * ContactSolver: Constructor that creates an empty contact solver
+     */
+    public ContactSolver() {
+        splitImpulse = true;
+        bodyIndices = new HashMap<Body, Integer>();
+        growBodies(INITIAL_CAPACITY);
+        growContacts(INITIAL_CAPACITY);
+        growManifolds(INITIAL_CAPACITY);
+    }
+
+    /* METHODS */
+
+    /**
+     * clear: Removes all packed bodies and contacts. The arrays are kept so they
+     * can be reused on the next step.
+     */
+    public void clear() {
+        for (int i = 0; i < numBodies; i++) {
+            bodies[i] = null;
+        }
+        for (int i = 0; i < numManifolds; i++) {
+            resolvers[i] = null;
+        }
+        bodyIndices.clear();
+        numBodies = 0;
+        numContacts = 0;
+        numManifolds = 0;
+    }
+
+    /**
+     * addAll: Packs every collision in the list
+     *
+     * @param cols the collision resolvers of this step
+     */
+    public void addAll(ArrayList<CollisionResolver> cols) {
+        for (int i = 0; i < cols.size(); i++) {
+            add(cols.get(i));
+        }
+    }
+
+    /**
+     * add: Packs the contacts of a collision and the velocities of its bodies into
+     * the solver rows
+     *
+     * @param col the collision resolver
+     */
+    public void add(CollisionResolver col) {
+        int a = indexOf(col.getBody1());
+        int b = indexOf(col.getBody2());
+        Vec[] ra = col.getRa();
+        Vec[] rb = col.getRb();
+        double[] mn = col.getMassNormal();
+        double[] mt = col.getMassTangent();
+        double[] eb = col.getElasticityBias();
+        Vec normal = col.getNormal();
+        int len = col.getNumContacts();
+
+        if (numManifolds == resolvers.length) {
+            growManifolds(resolvers.length * 2);
+        }
+        if (numContacts + len > bodyA.length) {
+            growContacts(Math.max(bodyA.length * 2, numContacts + len));
+        }
+
+        // store the manifold
+        int m = numManifolds++;
+        resolvers[m] = col;
+        firstContact[m] = numContacts;
+        contactCount[m] = len;
+        blockMatrix[m] = col.getBlockMatrix();
+        maxImpulse[m] = 0;
+
+        // store each contact point
+        for (int i = 0; i < len; i++) {
+            int c = numContacts++;
+            bodyA[c] = a;
+            bodyB[c] = b;
+            rax[c] = ra[i].getX();
+            ray[c] = ra[i].getY();
+            rbx[c] = rb[i].getX();
+            rby[c] = rb[i].getY();
+            nx[c] = normal.getX();
+            ny[c] = normal.getY();
+            massNormal[c] = mn[i];
+            massTangent[c] = mt[i];
+            // in split impulse mode the penetration does not add to the velocities
+            if (splitImpulse) {
+                velocityBias[c] = eb[i];
+                positionBias[c] = SPLIT_BIAS_FACTOR * col.getPenetration();
+            } else {
+                velocityBias[c] = col.getBias() + eb[i];
+                positionBias[c] = 0;
+            }
+            friction[c] = col.getFriction();
+            pn[c] = 0;
+            pt[c] = 0;
+            ppn[c] = 0;
+        }
+    }
+
+    /**
+     * solve: Iteratively applies the contact impulses, then writes the new
+     * velocities and the max impulses back once at the end. In split impulse mode
+     * a short post pass then pushes overlapping bodies apart using pseudo
+     * velocities, which move the bodies without changing their velocities.
+     *
+     * @param iterations         the number of velocity iterations
+     * @param positionIterations the number of position iterations
+     */
+    public void solve(int iterations, int positionIterations) {
+        for (int j = 0; j < iterations; j++) {
+            for (int m = 0; m < numManifolds; m++) {
+                int first = firstContact[m];
+                int end = first + contactCount[m];
+                double[] k = blockMatrix[m];
+
+                for (int c = first; c < end; c++) {
+                    // a two point manifold has its normal impulses solved together below
+                    if (k == null) {
+                        solveNormal(c, m);
+                    }
+                    solveTangent(c);
+                }
+
+                if (k != null) {
+                    solveBlockNormal(first, m, k);
+                }
+            }
+        }
+
+        if (splitImpulse) {
+            for (int j = 0; j < positionIterations; j++) {
+                for (int c = 0; c < numContacts; c++) {
+                    solvePosition(c);
+                }
+            }
+        }
+
+        writeBack();
+    }
+
+    /**
+     * solvePosition: Applies the normal pseudo impulse on a single contact point.
+     * Like the normal impulse, the accumulated pseudo impulse can only push.
+     *
+     * @param c the contact row
+     */
+    private void solvePosition(int c) {
+        int a = bodyA[c];
+        int b = bodyB[c];
+
+        // find the pseudo velocity along normal
+        double rvx = (pvx[b] - pw[b] * rby[c]) - (pvx[a] - pw[a] * ray[c]);
+        double rvy = (pvy[b] + pw[b] * rbx[c]) - (pvy[a] + pw[a] * rax[c]);
+        double vn = rvx * nx[c] + rvy * ny[c];
+
+        // clamp the accumulated pseudo impulse
+        double dP = massNormal[c] * (positionBias[c] - vn);
+        double p0 = ppn[c];
+        ppn[c] = Math.max(p0 + dP, 0);
+        dP = ppn[c] - p0;
+
+        double px = nx[c] * dP;
+        double py = ny[c] * dP;
+        pvx[a] -= px * invMass[a];
+        pvy[a] -= py * invMass[a];
+        pw[a] -= invInertia[a] * (rax[c] * py - ray[c] * px);
+        pvx[b] += px * invMass[b];
+        pvy[b] += py * invMass[b];
+        pw[b] += invInertia[b] * (rbx[c] * py - rby[c] * px);
+    }
+
+    /**
+     * solveNormal: Applies the normal impulse on a single contact point
+     *
+     * @param c the contact row
+     * @param m the manifold row
+     */
+    private void solveNormal(int c, int m) {
+
+        // find velocity along normal
+        double vn = relativeVelocity(c, nx[c], ny[c]);
+
+        // calculate current normal impulse
+        double dPn = massNormal[c] * (-vn + velocityBias[c]);
+
+        // save max impulse
+        if (dPn > maxImpulse[m]) {
+            maxImpulse[m] = dPn;
+        }
+
+        // ensure that the accumulated impulse is greater than 0, so that the bodies
+        // are separating
+        double pn0 = pn[c];
+        pn[c] = Math.max(pn0 + dPn, 0);
+        dPn = pn[c] - pn0;
+
+        applyImpulse(c, nx[c] * dPn, ny[c] * dPn);
+    }
+
+    /**
+     * solveTangent: Applies the friction impulse on a single contact point
+     *
+     * @param c the contact row
+     */
+    private void solveTangent(int c) {
+
+        // the tangent is the normal rotated clockwise
+        double tx = ny[c];
+        double ty = -nx[c];
+
+        // calculate the change in tangential impulse due to friction
+        double dPt = massTangent[c] * -relativeVelocity(c, tx, ty);
+
+        // clamp the accumulated impulse to ensure that bodies don't start increasing
+        // in speed
+        double maxPt = friction[c] * pn[c];
+        double pt0 = pt[c];
+        pt[c] = clamp(pt0 + dPt, -maxPt, maxPt);
+        dPt = pt[c] - pt0;
+
+        applyImpulse(c, tx * dPt, ty * dPt);
+    }
+
+    /**
+     * solveBlockNormal: Solves the normal impulses of a two point manifold together
+     * as a 2x2 linear complementarity problem. The four possible cases of active
+     * contacts are tested in order, and the first that satisfies the constraints is
+     * used.
+     *
+     * @param c the first contact row of the manifold
+     * @param m the manifold row
+     * @param k the 2x2 normal constraint matrix and its inverse
+     * @see <a href=
+     *      "https://box2d.org/files/ErinCatto_ContactManifolds_GDC2007.pdf">Block
+     *      Solver Explanation</a>
+     */
+    private void solveBlockNormal(int c, int m, double[] k) {
+        double k11 = k[0], k12 = k[1], k22 = k[2];
+
+        // the old accumulated impulses
+        double a1 = pn[c];
+        double a2 = pn[c + 1];
+
+        // the velocities along the normal, minus the velocities the bias wants
+        double vn1 = relativeVelocity(c, nx[c], ny[c]) - velocityBias[c];
+        double vn2 = relativeVelocity(c + 1, nx[c + 1], ny[c + 1]) - velocityBias[c + 1];
+
+        // remove the effect of the old impulses, b = vn - K * a
+        double b1 = vn1 - (k11 * a1 + k12 * a2);
+        double b2 = vn2 - (k12 * a1 + k22 * a2);
+
+        double x1, x2;
+
+        // case 1: both contacts are pushing, x = -inv(K) * b
+        x1 = -(k[3] * b1 + k[4] * b2);
+        x2 = -(k[4] * b1 + k[5] * b2);
+        if (x1 < 0 || x2 < 0) {
+
+            // case 2: only the first contact is pushing, the second is separating
+            x1 = -b1 / k11;
+            x2 = 0;
+            if (x1 < 0 || k12 * x1 + b2 < 0) {
+
+                // case 3: only the second contact is pushing, the first is separating
+                x1 = 0;
+                x2 = -b2 / k22;
+                if (x2 < 0 || k12 * x2 + b1 < 0) {
+
+                    // case 4: both contacts are separating
+                    x1 = 0;
+                    x2 = 0;
+                    if (b1 < 0 || b2 < 0) {
+                        // no solution was found, so keep the old impulses
+                        return;
+                    }
+                }
+            }
+        }
+
+        // calculate the change in normal impulse
+        double d1 = x1 - a1;
+        double d2 = x2 - a2;
+
+        // save max impulse
+        maxImpulse[m] = Math.max(maxImpulse[m], Math.max(d1, d2));
+
+        // apply normal impulses
+        applyImpulse(c, nx[c] * d1, ny[c] * d1);
+        applyImpulse(c + 1, nx[c + 1] * d2, ny[c + 1] * d2);
+
+        // store the accumulated impulses
+        pn[c] = x1;
+        pn[c + 1] = x2;
+    }
+
+    /**
+     * relativeVelocity: Finds the velocity of body B relative to body A at a
+     * contact point, projected onto a direction
+     *
+     * @param c  the contact row
+     * @param dx the x component of the direction
+     * @param dy the y component of the direction
+     * @return the projected relative velocity
+     */
+    private double relativeVelocity(int c, double dx, double dy) {
+        int a = bodyA[c];
+        int b = bodyB[c];
+        // v + w x r, where w x r = (-w * r.y, w * r.x)
+        double rvx = (vx[b] - w[b] * rby[c]) - (vx[a] - w[a] * ray[c]);
+        double rvy = (vy[b] + w[b] * rbx[c]) - (vy[a] + w[a] * rax[c]);
+        return rvx * dx + rvy * dy;
+    }
+
+    /**
+     * applyImpulse: Applies equal and opposite impulses on the two bodies of a
+     * contact point. The velocities are clamped the same way as
+     * {@link Body#applyImpulse(Vec, Vec)}.
+     *
+     * @param c  the contact row
+     * @param px the x component of the impulse applied on body B
+     * @param py the y component of the impulse applied on body B
+     */
+    private void applyImpulse(int c, double px, double py) {
+        double maxSpeed = Body.getMaxSpeed();
+        int a = bodyA[c];
+        int b = bodyB[c];
+        if (invMass[a] != 0) {
+            vx[a] = clamp(vx[a] - px * invMass[a], -maxSpeed, maxSpeed);
+            vy[a] = clamp(vy[a] - py * invMass[a], -maxSpeed, maxSpeed);
+            w[a] = clamp(w[a] - invInertia[a] * (rax[c] * py - ray[c] * px), -maxSpeed, maxSpeed);
+        }
+        if (invMass[b] != 0) {
+            vx[b] = clamp(vx[b] + px * invMass[b], -maxSpeed, maxSpeed);
+            vy[b] = clamp(vy[b] + py * invMass[b], -maxSpeed, maxSpeed);
+            w[b] = clamp(w[b] + invInertia[b] * (rbx[c] * py - rby[c] * px), -maxSpeed, maxSpeed);
+        }
+    }
+
+    /**
+     * writeBack: Copies the solved velocities back into the bodies and the max
+     * impulses back into the collision resolvers. The pseudo velocities are
+     * applied to the positions once and then discarded.
+     */
+    private void writeBack() {
+        for (int i = 0; i < numBodies; i++) {
+            if (invMass[i] != 0) {
+                bodies[i].getVel().set(vx[i], vy[i]);
+                bodies[i].setAngularVelocity(w[i]);
+                if (splitImpulse) {
+                    bodies[i].getPos().add(pvx[i], pvy[i]);
+                    bodies[i].rotate(pw[i]);
+                }
+            }
+        }
+        for (int m = 0; m < numManifolds; m++) {
+            resolvers[m].setMaxImpulse(maxImpulse[m]);
+        }
+    }
+
+    /**
+     * indexOf: Finds the row of a body, packing it if it has not been packed yet
+     *
+     * @param body the body
+     * @return the body row
+     */
+    private int indexOf(Body body) {
+        Integer index = bodyIndices.get(body);
+        if (index != null) {
+            return index;
+        }
+        if (numBodies == bodies.length) {
+            growBodies(bodies.length * 2);
+        }
+        int i = numBodies++;
+        bodies[i] = body;
+        vx[i] = body.getVel().getX();
+        vy[i] = body.getVel().getY();
+        w[i] = body.getAngularVelocity();
+        pvx[i] = 0;
+        pvy[i] = 0;
+        pw[i] = 0;
+        if (body.isStatic()) {
+            invMass[i] = 0;
+            invInertia[i] = 0;
+        } else {
+            invMass[i] = body.getInvMass();
+            invInertia[i] = 1.0 / body.getInertia();
+        }
+        bodyIndices.put(body, i);
+        return i;
+    }
+
+    /**
+     * growBodies: Resizes the body rows
+     *
+     * @param capacity the new capacity
+     */
+    private void growBodies(int capacity) {
+        bodies = bodies == null ? new Body[capacity] : Arrays.copyOf(bodies, capacity);
+        vx = resize(vx, capacity);
+        vy = resize(vy, capacity);
+        w = resize(w, capacity);
+        pvx = resize(pvx, capacity);
+        pvy = resize(pvy, capacity);
+        pw = resize(pw, capacity);
+        invMass = resize(invMass, capacity);
+        invInertia = resize(invInertia, capacity);
+    }
+
+    /**
+     * growContacts: Resizes the contact rows
+     *
+     * @param capacity the new capacity
+     */
+    private void growContacts(int capacity) {
+        bodyA = bodyA == null ? new int[capacity] : Arrays.copyOf(bodyA, capacity);
+        bodyB = bodyB == null ? new int[capacity] : Arrays.copyOf(bodyB, capacity);
+        rax = resize(rax, capacity);
+        ray = resize(ray, capacity);
+        rbx = resize(rbx, capacity);
+        rby = resize(rby, capacity);
+        nx = resize(nx, capacity);
+        ny = resize(ny, capacity);
+        massNormal = resize(massNormal, capacity);
+        massTangent = resize(massTangent, capacity);
+        velocityBias = resize(velocityBias, capacity);
+        positionBias = resize(positionBias, capacity);
+        friction = resize(friction, capacity);
+        pn = resize(pn, capacity);
+        pt = resize(pt, capacity);
+        ppn = resize(ppn, capacity);
+    }
+
+    /**
+     * growManifolds: Resizes the manifold rows
+     *
+     * @param capacity the new capacity
+     */
+    private void growManifolds(int capacity) {
+        resolvers = resolvers == null ? new CollisionResolver[capacity] : Arrays.copyOf(resolvers, capacity);
+        firstContact = firstContact == null ? new int[capacity] : Arrays.copyOf(firstContact, capacity);
+        contactCount = contactCount == null ? new int[capacity] : Arrays.copyOf(contactCount, capacity);
+        blockMatrix = blockMatrix == null ? new double[capacity][] : Arrays.copyOf(blockMatrix, capacity);
+        maxImpulse = resize(maxImpulse, capacity);
+    }
+
+    /**
+     * resize: Copies an array into a new array of a given length
+     *
+     * @param arr      the array, or null
+     * @param capacity the new length
+     * @return the resized array
+     */
+    private static double[] resize(double[] arr, int capacity) {
+        return arr == null ? new double[capacity] : Arrays.copyOf(arr, capacity);
+    }
+
+    /**
+     * clamp: This method clamps a variable between a specified range.
+     *
+     * @param val the value of the variable
+     * @param min the minimum value
+     * @param max the maximum value
+     * @return the clamped value of the variable
+     */
+    private static double clamp(double val, double min, double max) {
+        return Math.max(min, Math.min(max, val));
+    }
+
+}
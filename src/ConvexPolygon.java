@@ -7,33 +7,102 @@
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.Polygon;
 import java.util.Random;
 
 public class ConvexPolygon extends Body {
 
     /* FIELDS */
     private final static double PERCENT_VARIATION = 0.5; // for creating random polygons
-    protected Vec[] vertices; // the array off vertices of the polygon
+    private Vec[] localVertices; // the unrotated vertices of the polygon, relative to its center of mass
+    private Vec[] localNormals; // the unrotated edge normals of the polygon
+    private double rotation; // the rotation of the polygon in radians
+    private double cos = 1, sin = 0; // the cosine and sine of the rotation
+    private boolean rotationChanged; // whether the rotated data needs to be recalculated
+    private Vec[] vertices; // the rotated vertices of the polygon, relative to its position
+    private Vec[] normals; // the rotated edge normals of the polygon
+    private Vec[] worldVertices; // the rotated vertices of the polygon, in world space
+    private double[] bounds; // [min x, max x, min y, max y] of the world vertices
+    private double worldX = Double.NaN, worldY = Double.NaN; // the position the world data was calculated at
+    private int[] drawX, drawY; // screen coordinates reused for drawing
 
     /* ACCESSORS */
 
     /**
+     * The returned vertices are relative to the position and rotated with the
+     * polygon. They are recalculated at most once per rotation and must not be
+     * modified.
+     *
      * @return the vertices
      */
     public Vec[] getVertices() {
+        updateRotation();
         return vertices;
     }
 
+    /**
+     * The returned normals are rotated with the polygon and must not be modified.
+     *
+     * @return the edge normals, where normal i belongs to the edge from vertex i to
+     *         vertex i + 1
+     */
+    public Vec[] getNormals() {
+        updateRotation();
+        return normals;
+    }
+
+    /**
+     * The returned vertices are recalculated at most once per change in position
+     * or rotation and must not be modified.
+     *
+     * @return the vertices in world space
+     */
+    public Vec[] getWorldVertices() {
+        updateTransform();
+        return worldVertices;
+    }
+
+    /**
+     * @return the unrotated vertices, relative to the center of mass
+     */
+    public Vec[] getLocalVertices() {
+        return localVertices;
+    }
+
+    /**
+     * @return the unrotated edge normals
+     */
+    public Vec[] getLocalNormals() {
+        return localNormals;
+    }
+
     /* MUTATORS */
 
     /**
-     * The vertices must be in counterclockwise order.
+     * The vertices must be in counterclockwise order. They are taken as the
+     * unrotated vertices of the polygon.
      *
      * @param vertices the vertices to set
      */
     public void setVertices(Vec[] vertices) {
-        this.vertices = vertices;
+        this.localVertices = vertices;
+        this.localNormals = new Vec[vertices.length];
+        this.vertices = new Vec[vertices.length];
+        this.normals = new Vec[vertices.length];
+        this.worldVertices = new Vec[vertices.length];
+        this.bounds = new double[4];
+        this.drawX = new int[vertices.length];
+        this.drawY = new int[vertices.length];
+
+        for (int i = 0; i < vertices.length; i++) {
+            // the normal is perpendicular to the edge between two adjacent vertices
+            Vec normal = Vec.getSub(vertices[i], vertices[(i + 1) % vertices.length]).getPerp();
+            normal.normalize();
+            this.localNormals[i] = normal;
+            this.vertices[i] = new Vec();
+            this.normals[i] = new Vec();
+            this.worldVertices[i] = new Vec();
+        }
+        this.rotationChanged = true;
     }
 
     /* CONSTRUCTORS */
@@ -53,8 +122,9 @@ public class ConvexPolygon extends Body {
     public ConvexPolygon(String name, Vec pos, double mass, boolean isStatic, boolean resolveCollisions, Vec vel,
                          int age, double angle, double angularVelocity, Vec[] vertices) {
         super(name, pos, mass, isStatic, resolveCollisions, vel, age, angle, angularVelocity);
-        this.vertices = vertices;
+        this.localVertices = vertices;
         this.adjustPositionToCenterOfMass();
+        this.setVertices(this.localVertices);
         this.updateProperties();
     }
 
@@ -65,34 +135,77 @@ public class ConvexPolygon extends Body {
      */
     public void adjustPositionToCenterOfMass() {
         Vec delta = new Vec(0,0);
-        for(Vec vertex: vertices) {
+        for(Vec vertex: localVertices) {
             delta.add(vertex);
         }
-        delta.div(vertices.length);
+        delta.div(localVertices.length);
         pos.add(delta);
-        for(int i=0;i<vertices.length;i++) {
-            vertices[i].sub(delta);
+        for(int i=0;i<localVertices.length;i++) {
+            localVertices[i].sub(delta);
         }
+        this.worldX = Double.NaN;
     }
 
 
     /**
-     * rotate: rotates the polygon at a specified angle
+     * rotate: rotates the polygon at a specified angle. Only the transform is
+     * updated, the rotated vertices are recalculated when they are next needed.
      *
      * @param angle the angle at which the poygon will rotate to face
      */
     @Override
     protected void rotate(double angle) {
         super.rotate(angle);
-        for (int i = 0; i < this.vertices.length; i++) {
-            double sin = Math.sin(angle);
-            double cos = Math.cos(angle);
-            double xNew = this.vertices[i].getX() * cos - this.vertices[i].getY() * sin;
-            double yNew = this.vertices[i].getX() * sin + this.vertices[i].getY() * cos;
-
-            this.vertices[i].setX(xNew);
-            this.vertices[i].setY(yNew);
+        this.rotation = (this.rotation + angle) % (2 * Math.PI);
+        this.cos = Math.cos(this.rotation);
+        this.sin = Math.sin(this.rotation);
+        this.rotationChanged = true;
+    }
+
+    /**
+     * updateRotation: recalculates the rotated vertices and normals if the
+     * polygon has rotated since they were last calculated
+     */
+    private void updateRotation() {
+        if (!rotationChanged) {
+            return;
+        }
+        for (int i = 0; i < localVertices.length; i++) {
+            Vec v = localVertices[i];
+            Vec n = localNormals[i];
+            vertices[i].set(v.getX() * cos - v.getY() * sin, v.getX() * sin + v.getY() * cos);
+            normals[i].set(n.getX() * cos - n.getY() * sin, n.getX() * sin + n.getY() * cos);
+        }
+        rotationChanged = false;
+        worldX = Double.NaN;
+    }
+
+    /**
+     * updateTransform: recalculates the world vertices and bounds if the polygon
+     * has moved or rotated since they were last calculated
+     */
+    private void updateTransform() {
+        updateRotation();
+        double x = pos.getX();
+        double y = pos.getY();
+        if (x == worldX && y == worldY) {
+            return;
+        }
+        bounds[0] = Double.POSITIVE_INFINITY;
+        bounds[1] = Double.NEGATIVE_INFINITY;
+        bounds[2] = Double.POSITIVE_INFINITY;
+        bounds[3] = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertices.length; i++) {
+            double wx = vertices[i].getX() + x;
+            double wy = vertices[i].getY() + y;
+            worldVertices[i].set(wx, wy);
+            bounds[0] = Math.min(bounds[0], wx);
+            bounds[1] = Math.max(bounds[1], wx);
+            bounds[2] = Math.min(bounds[2], wy);
+            bounds[3] = Math.max(bounds[3], wy);
         }
+        worldX = x;
+        worldY = y;
     }
 
     /**
@@ -102,12 +215,35 @@ public class ConvexPolygon extends Body {
      */
     @Override
     public void draw(Graphics g) { // temporary draw method
-        Polygon p = new Polygon();
-        for (int j = 0; j < vertices.length; j++) {
-            p.addPoint((int) (vertices[j].getX() + pos.getX()), (int) (vertices[j].getY() + pos.getY()));
+        Vec[] world = getWorldVertices();
+        for (int j = 0; j < world.length; j++) {
+            drawX[j] = (int) world[j].getX();
+            drawY[j] = (int) world[j].getY();
         }
-        g.setColor(Color.GRAY);
-        g.fillPolygon(p);
+        g.setColor(getColor());
+        g.fillPolygon(drawX, drawY, world.length);
+    }
+
+    /**
+     * getColor: retrieves the colour the polygon is drawn with
+     *
+     * @return the colour
+     */
+    @Override
+    public Color getColor() {
+        return Color.GRAY;
+    }
+
+    /**
+     * addToSnapshot: adds the polygon to a render snapshot
+     *
+     * @param snapshot the snapshot being filled
+     */
+    @Override
+    public void addToSnapshot(RenderSnapshot snapshot) {
+        // the snapshot copies what it needs straight away, so the cached bounds can be passed without copying
+        Vec[] world = getWorldVertices();
+        snapshot.addPolygon(pos.getX(), pos.getY(), world, bounds, getColor());
     }
 
     /**
@@ -118,9 +254,9 @@ public class ConvexPolygon extends Body {
     @Override
     protected double calcArea() {
         double area = 0;
-        for (int i = 1; i < this.vertices.length - 1; i++) {
-            Vec v1 = Vec.getSub(this.vertices[i + 1], this.vertices[0]);
-            Vec v2 = Vec.getSub(this.vertices[i], this.vertices[0]);
+        for (int i = 1; i < this.localVertices.length - 1; i++) {
+            Vec v1 = Vec.getSub(this.localVertices[i + 1], this.localVertices[0]);
+            Vec v2 = Vec.getSub(this.localVertices[i], this.localVertices[0]);
             area += Vec.cross(v1, v2) / 2.0;
         }
         return Math.abs(area);
@@ -136,9 +272,9 @@ public class ConvexPolygon extends Body {
 
         double momentOfInertia = 0;
 
-        for (int i = 1; i < this.vertices.length - 1; i++) {
+        for (int i = 1; i < this.localVertices.length - 1; i++) {
 
-            Vec p1 = this.vertices[0], p2 = this.vertices[i], p3 = this.vertices[i + 1];
+            Vec p1 = this.localVertices[0], p2 = this.localVertices[i], p3 = this.localVertices[i + 1];
 
             double w = p1.distance(p2);
 
@@ -183,33 +319,26 @@ public class ConvexPolygon extends Body {
     }
 
     /**
-     * getMaxMin: finds the maximum and minimum points of the circle body
+     * getMaxMin: finds the maximum and minimum points of the polygon
      *
-     * @return an array of coordinates with the circle's max and min points
+     * @return a new array of coordinates with the polygon's max and min points
      */
     @Override
     public double[] getMaxMin() {
-        double[] arr = { Double.MAX_VALUE, Double.MIN_VALUE, Double.MAX_VALUE, Double.MIN_VALUE };// [min x, max x, min
-        // y, max y]
-        for (int i = 0; i < vertices.length; i++) {
-            if (vertices[i].getX() < arr[0]) {
-                arr[0] = vertices[i].getX();
-            }
-            if (vertices[i].getX() > arr[1]) {
-                arr[1] = vertices[i].getX();
-            }
-            if (vertices[i].getY() < arr[2]) {
-                arr[2] = vertices[i].getY();
-            }
-            if (vertices[i].getY() > arr[3]) {
-                arr[3] = vertices[i].getY();
-            }
-        }
-        arr[0] += pos.getX();
-        arr[1] += pos.getX();
-        arr[2] += pos.getY();
-        arr[3] += pos.getY();
-        return arr;
+        updateTransform();
+        return bounds.clone();
+    }
+
+    /**
+     * getMaxMin: copies the maximum and minimum points of the polygon into an
+     * array
+     *
+     * @param out array set to [min x, max x, min y, max y]
+     */
+    @Override
+    public void getMaxMin(double[] out) {
+        updateTransform();
+        System.arraycopy(bounds, 0, out, 0, 4);
     }
 
     /**
@@ -219,7 +348,7 @@ public class ConvexPolygon extends Body {
      */
     @Override
     public String toString() {
-        return super.toString() + "\nnumber of vertices: " + this.vertices.length;
+        return super.toString() + "\nnumber of vertices: " + this.localVertices.length;
     }
 
     /**
@@ -0,0 +1,82 @@
+/**
+ File Name: DensityRenderer.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class draws the density map of a render snapshot, which counts the bodies too small to draw one by
+ one over each pixel. Each pixel is coloured by how many bodies are over it, from a faint blue for one body to white
+ for the most crowded pixel, and the whole map is drawn as one image. The cost depends on the size of the screen, not
+ on how many bodies there are.
+ */
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+public class DensityRenderer {
+
+    /* FIELDS */
+    private static final int PALETTE_SIZE = 256; // class field: number of colours in the palette
+    private static final int[] PALETTE = new int[PALETTE_SIZE]; // class field: colours from sparse to crowded
+    static {
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            double t = i / (double) (PALETTE_SIZE - 1);
+            int a = (int) (96 + 159 * t);
+            int r = (int) (80 + 175 * t);
+            int g = (int) (120 + 135 * t);
+            PALETTE[i] = a << 24 | r << 16 | g << 8 | 255;
+        }
+    }
+    private BufferedImage image; // instance field: the image the map is coloured into
+    private int[] pixels; // instance field: the pixels of the image
+    private int[] levels; // instance field: palette index for each count, up to the largest count
+    private long lastFrameNanos; // instance field: time taken to draw the last map
+
+    /* ACCESSORS */
+
+    /**
+     * @return time taken to draw the last map, in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /* METHODS */
+
+    /**
+     * render: Draws the density map of a snapshot, if it counted any bodies
+     *
+     * @param g        Graphics
+     * @param snapshot the snapshot to draw
+     */
+    public void render(Graphics g, RenderSnapshot snapshot) {
+        if (snapshot.getDensityTotal() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int w = snapshot.getDensityWidth();
+        int h = snapshot.getDensityHeight();
+        if (image == null || image.getWidth() != w || image.getHeight() != h) {
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+
+        // counts are shown on a log scale so a few crowded pixels do not wash out the rest
+        int max = snapshot.getDensityMax();
+        if (levels == null || levels.length <= max) {
+            levels = new int[max + 1];
+        }
+        double scale = (PALETTE_SIZE - 1) / Math.log(1 + max);
+        for (int c = 1; c <= max; c++) {
+            levels[c] = (int) (Math.log(1 + c) * scale);
+        }
+
+        int n = w * h;
+        for (int i = 0; i < n; i++) {
+            int c = snapshot.getDensity(i);
+            pixels[i] = c == 0 ? 0 : PALETTE[levels[c]];
+        }
+        g.drawImage(image, 0, 0, null);
+        lastFrameNanos = System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,429 @@
+/**
+ * File Name: FractureEngine.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class breaks a convex polygon into convex fragments. By default the polygon is cut into wedges
+ * around its center, with the cuts spread evenly along its edges. Optionally, a precomputed Voronoi fracture
+ * pattern is scaled to the polygon and clipped against it instead.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+public class FractureEngine {
+
+    /* FIELDS */
+
+    private static final int DEFAULT_NUM_FRAGMENTS = 4;
+    private static final int MIN_FRAGMENTS = 2;
+    private static final int TEMPLATES_PER_COUNT = 4; // the number of different Voronoi patterns per fragment count
+    private static final double SEED_RADIUS = 0.6; // how far from the center the outer Voronoi seeds are placed
+    private static final double MIN_FRAGMENT_AREA = 1e-6; // fragments smaller than this, relative to the template, are dropped
+    private static final double EPSILON = 1e-9;
+
+    private int numFragments; // instance field: the number of fragments to break polygons into
+    private boolean useTemplates; // instance field: whether Voronoi templates are used instead of wedges
+    private HashMap<Integer, double[][][]> templates; // instance field: Voronoi cells for each fragment count
+    private Random rand; // instance field: random generator for the cut positions
+    private double[] clipX, clipY, tempX, tempY; // instance field: reused buffers for clipping
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of fragments polygons are broken into
+     */
+    public int getNumFragments() {
+        return numFragments;
+    }
+
+    /**
+     * @return whether Voronoi templates are used instead of wedges
+     */
+    public boolean isUseTemplates() {
+        return useTemplates;
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param numFragments the number of fragments to break polygons into, at
+     *                     least 2
+     */
+    public void setNumFragments(int numFragments) {
+        this.numFragments = Math.max(MIN_FRAGMENTS, numFragments);
+    }
+
+    /**
+     * @param useTemplates whether Voronoi templates are used instead of wedges
+     */
+    public void setUseTemplates(boolean useTemplates) {
+        this.useTemplates = useTemplates;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * FractureEngine: Constructor that creates a fracture engine cutting polygons
+     * into the default number of wedges
+     */
+    public FractureEngine() {
+        this.numFragments = DEFAULT_NUM_FRAGMENTS;
+        this.useTemplates = false;
+        this.templates = new HashMap<Integer, double[][][]>();
+        this.rand = new Random();
+        this.clipX = new double[16];
+        this.clipY = new double[16];
+        this.tempX = new double[16];
+        this.tempY = new double[16];
+    }
+
+    /* METHODS */
+
+    /**
+     * fracture: Breaks a convex polygon into convex fragments. The fragments keep
+     * the order of the vertices of the polygon. The vertices of the fragments are
+     * in the same space as the given vertices.
+     *
+     * @param vertices the vertices of the polygon, relative to a point inside it
+     * @return the vertices of each fragment
+     */
+    public ArrayList<Vec[]> fracture(Vec[] vertices) {
+        if (vertices.length < 3) {
+            ArrayList<Vec[]> whole = new ArrayList<Vec[]>();
+            whole.add(vertices);
+            return whole;
+        }
+        if (useTemplates) {
+            return fractureTemplate(vertices);
+        }
+        return fractureWedges(vertices);
+    }
+
+    /**
+     * fractureWedges: Cuts the polygon into wedges around the average of its
+     * vertices. The cuts are spread evenly along the perimeter, starting at a
+     * random point. A wedge that would be wider than half a turn is split again so
+     * that every fragment stays convex. This takes time linear in the number of
+     * vertices and fragments.
+     *
+     * @param vertices the vertices of the polygon
+     * @return the vertices of each fragment
+     */
+    private ArrayList<Vec[]> fractureWedges(Vec[] vertices) {
+        int n = vertices.length;
+        double orientation = Math.signum(signedArea(vertices));
+
+        // the center of the wedges
+        double cx = 0, cy = 0;
+        for (Vec v : vertices) {
+            cx += v.getX();
+            cy += v.getY();
+        }
+        cx /= n;
+        cy /= n;
+
+        // the distance along the perimeter to the start of each edge
+        double[] perimeter = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            Vec a = vertices[i];
+            Vec b = vertices[(i + 1) % n];
+            perimeter[i + 1] = perimeter[i] + Math.hypot(b.getX() - a.getX(), b.getY() - a.getY());
+        }
+        double total = perimeter[n];
+
+        // the cuts, as distances along the perimeter
+        ArrayList<Double> cuts = new ArrayList<Double>();
+        double offset = rand.nextDouble() * total / numFragments;
+        for (int i = 0; i < numFragments; i++) {
+            cuts.add(offset + total * i / numFragments);
+        }
+
+        ArrayList<Vec[]> fragments = new ArrayList<Vec[]>();
+        ArrayList<Vec> wedge = new ArrayList<Vec>();
+        int i = 0;
+        while (i < cuts.size()) {
+            double from = cuts.get(i);
+            double to = i + 1 < cuts.size() ? cuts.get(i + 1) : cuts.get(0) + total;
+            Vec start = pointAt(vertices, perimeter, from);
+            Vec end = pointAt(vertices, perimeter, to);
+
+            // split wedges that are not convex at the center, giving up on polygons
+            // that are not convex themselves
+            double cross = (start.getX() - cx) * (end.getY() - cy) - (start.getY() - cy) * (end.getX() - cx);
+            if (cross * orientation <= 0 && to - from > EPSILON && cuts.size() < numFragments + 2 * n) {
+                cuts.add(i + 1, (from + to) / 2);
+                continue;
+            }
+
+            // the center, the start cut, the vertices in between and the end cut
+            wedge.clear();
+            wedge.add(new Vec(cx, cy));
+            wedge.add(start);
+            double wrap = from - from % total;
+            int edge = edgeAt(perimeter, from);
+            for (int k = 1; k <= n; k++) {
+                double d = perimeter[(edge + k) % n] + (edge + k >= n ? total : 0) + wrap;
+                if (d <= from + EPSILON) {
+                    continue;
+                }
+                if (d >= to - EPSILON) {
+                    break;
+                }
+                wedge.add(new Vec(vertices[(edge + k) % n]));
+            }
+            wedge.add(end);
+            fragments.add(wedge.toArray(new Vec[wedge.size()]));
+            i++;
+        }
+        return fragments;
+    }
+
+    /**
+     * pointAt: Finds the point at a distance along the perimeter of a polygon
+     *
+     * @param vertices  the vertices of the polygon
+     * @param perimeter the distance along the perimeter to the start of each edge
+     * @param distance  the distance along the perimeter
+     * @return the point
+     */
+    private static Vec pointAt(Vec[] vertices, double[] perimeter, double distance) {
+        int n = vertices.length;
+        double total = perimeter[n];
+        distance = distance % total;
+        int edge = edgeAt(perimeter, distance);
+        Vec a = vertices[edge];
+        Vec b = vertices[(edge + 1) % n];
+        double length = perimeter[edge + 1] - perimeter[edge];
+        double t = length == 0 ? 0 : (distance - perimeter[edge]) / length;
+        return new Vec(a.getX() + (b.getX() - a.getX()) * t, a.getY() + (b.getY() - a.getY()) * t);
+    }
+
+    /**
+     * edgeAt: Finds the edge at a distance along the perimeter of a polygon
+     *
+     * @param perimeter the distance along the perimeter to the start of each edge
+     * @param distance  the distance along the perimeter
+     * @return the index of the first vertex of the edge
+     */
+    private static int edgeAt(double[] perimeter, double distance) {
+        int n = perimeter.length - 1;
+        distance = distance % perimeter[n];
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (perimeter[mid] <= distance) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * fractureTemplate: Scales a Voronoi template to cover the polygon, turns it
+     * by a random angle and clips the polygon against each cell. The template is
+     * only computed the first time a fragment count is used, so this takes time
+     * linear in the number of vertices for a given fragment count.
+     *
+     * @param vertices the vertices of the polygon
+     * @return the vertices of each fragment
+     */
+    private ArrayList<Vec[]> fractureTemplate(Vec[] vertices) {
+        double[][][] cells = getTemplate(numFragments, rand.nextInt(TEMPLATES_PER_COUNT));
+
+        // the template covers a square around the center that contains the polygon
+        double scale = 0;
+        for (Vec v : vertices) {
+            scale = Math.max(scale, Math.max(Math.abs(v.getX()), Math.abs(v.getY())));
+        }
+        scale *= Math.sqrt(2);
+        double angle = rand.nextDouble() * Math.PI * 2;
+        double cos = Math.cos(angle) * scale;
+        double sin = Math.sin(angle) * scale;
+
+        ArrayList<Vec[]> fragments = new ArrayList<Vec[]>();
+        for (double[][] cell : cells) {
+            int c = cell[0].length;
+            int m = vertices.length;
+            ensureCapacity(m + c);
+            for (int i = 0; i < m; i++) {
+                clipX[i] = vertices[i].getX();
+                clipY[i] = vertices[i].getY();
+            }
+
+            // clip the polygon by every edge of the cell, which has few edges
+            for (int e = 0; e < c && m > 0; e++) {
+                int f = (e + 1) % c;
+                m = clipHalfPlane(m, cell[0][e] * cos - cell[1][e] * sin, cell[0][e] * sin + cell[1][e] * cos,
+                        cell[0][f] * cos - cell[1][f] * sin, cell[0][f] * sin + cell[1][f] * cos);
+            }
+            if (m < 3) {
+                continue;
+            }
+
+            // clipping keeps the order of the vertices of the polygon
+            Vec[] fragment = new Vec[m];
+            for (int i = 0; i < m; i++) {
+                fragment[i] = new Vec(clipX[i], clipY[i]);
+            }
+            if (Math.abs(signedArea(fragment)) >= MIN_FRAGMENT_AREA * scale * scale) {
+                fragments.add(fragment);
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * clipHalfPlane: Clips the polygon in the clip buffers to the left of an edge
+     * of a counterclockwise convex polygon, keeping the order of its vertices
+     *
+     * @param m           the number of vertices in the clip buffers
+     * @param ax          the x coordinate of the start of the edge
+     * @param ay          the y coordinate of the start of the edge
+     * @param bx          the x coordinate of the end of the edge
+     * @param by          the y coordinate of the end of the edge
+     * @return the number of vertices left in the clip buffers
+     */
+    private int clipHalfPlane(int m, double ax, double ay, double bx, double by) {
+        double ex = bx - ax;
+        double ey = by - ay;
+        int count = 0;
+        for (int i = 0; i < m; i++) {
+            int j = (i + 1) % m;
+            double si = ex * (clipY[i] - ay) - ey * (clipX[i] - ax);
+            double sj = ex * (clipY[j] - ay) - ey * (clipX[j] - ax);
+            if (si >= 0) {
+                tempX[count] = clipX[i];
+                tempY[count] = clipY[i];
+                count++;
+            }
+            if ((si >= 0) != (sj >= 0)) {
+                double t = si / (si - sj);
+                tempX[count] = clipX[i] + (clipX[j] - clipX[i]) * t;
+                tempY[count] = clipY[i] + (clipY[j] - clipY[i]) * t;
+                count++;
+            }
+        }
+        double[] swap = clipX;
+        clipX = tempX;
+        tempX = swap;
+        swap = clipY;
+        clipY = tempY;
+        tempY = swap;
+        return count;
+    }
+
+    /**
+     * ensureCapacity: Grows the clip buffers so that a cell clipped by a polygon
+     * fits
+     *
+     * @param capacity the number of vertices needed
+     */
+    private void ensureCapacity(int capacity) {
+        if (clipX.length < capacity) {
+            clipX = new double[capacity * 2];
+            clipY = new double[capacity * 2];
+            tempX = new double[capacity * 2];
+            tempY = new double[capacity * 2];
+        }
+    }
+
+    /**
+     * getTemplate: Retrieves a Voronoi template, computing it the first time it is
+     * used. The cells cover the square from -1 to 1 and are stored as x and y
+     * arrays.
+     *
+     * @param count   the number of cells
+     * @param variant which of the templates for this count to use
+     * @return the cells of the template
+     */
+    private double[][][] getTemplate(int count, int variant) {
+        int key = count * TEMPLATES_PER_COUNT + variant;
+        double[][][] cells = templates.get(key);
+        if (cells == null) {
+            cells = buildTemplate(count, new Random(key));
+            templates.put(key, cells);
+        }
+        return cells;
+    }
+
+    /**
+     * buildTemplate: Builds the Voronoi cells of one seed near the center and the
+     * rest spread around a ring, so the pieces break away from the middle. Each
+     * cell is the square clipped by the bisectors with every other seed.
+     *
+     * @param count the number of cells
+     * @param rand  the random generator for the seeds
+     * @return the cells of the template
+     */
+    private double[][][] buildTemplate(int count, Random rand) {
+        double[] seedX = new double[count];
+        double[] seedY = new double[count];
+        double step = Math.PI * 2 / (count - 1);
+        seedX[0] = (rand.nextDouble() - 0.5) * 0.1;
+        seedY[0] = (rand.nextDouble() - 0.5) * 0.1;
+        for (int i = 1; i < count; i++) {
+            double angle = step * (i + (rand.nextDouble() - 0.5) * 0.5);
+            double radius = SEED_RADIUS * (0.75 + rand.nextDouble() * 0.5);
+            seedX[i] = Math.cos(angle) * radius;
+            seedY[i] = Math.sin(angle) * radius;
+        }
+
+        ArrayList<double[][]> cells = new ArrayList<double[][]>();
+        for (int i = 0; i < count; i++) {
+            ensureCapacity(count + 4);
+            clipX[0] = -1;
+            clipY[0] = -1;
+            clipX[1] = 1;
+            clipY[1] = -1;
+            clipX[2] = 1;
+            clipY[2] = 1;
+            clipX[3] = -1;
+            clipY[3] = 1;
+            int m = 4;
+
+            // keep the side of each bisector closer to this seed
+            for (int j = 0; j < count && m > 0; j++) {
+                if (i == j) {
+                    continue;
+                }
+                double mx = (seedX[i] + seedX[j]) / 2;
+                double my = (seedY[i] + seedY[j]) / 2;
+                double dx = seedX[j] - seedX[i];
+                double dy = seedY[j] - seedY[i];
+                // the bisector runs along (-dy, dx), with this seed on its left
+                m = clipHalfPlane(m, mx, my, mx - dy, my + dx);
+            }
+            if (m >= 3) {
+                double[][] cell = new double[2][m];
+                for (int k = 0; k < m; k++) {
+                    cell[0][k] = clipX[k];
+                    cell[1][k] = clipY[k];
+                }
+                cells.add(cell);
+            }
+        }
+        return cells.toArray(new double[cells.size()][][]);
+    }
+
+    /**
+     * signedArea: Calculates the signed area of a polygon, which is positive when
+     * the vertices are in counterclockwise order
+     *
+     * @param vertices the vertices of the polygon
+     * @return the signed area
+     */
+    private static double signedArea(Vec[] vertices) {
+        double sum = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            Vec a = vertices[i];
+            Vec b = vertices[(i + 1) % vertices.length];
+            sum += a.getX() * b.getY() - b.getX() * a.getY();
+        }
+        return sum / 2;
+    }
+
+}
@@ -0,0 +1,266 @@
+/**
+ File Name: HeadlessRenderer.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class runs the simulation without a screen and writes it out as a numbered sequence of PNG images,
+ for machines with no display where Space cannot be created. Every Nth step is drawn into an image with the same
+ drawing code as the screen, and the image is handed to a pool of encoder threads which write it to a file. Drawing
+ reuses a small set of images; if the encoders fall so far behind that none is free, the frame is skipped rather than
+ making the simulation wait.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+public class HeadlessRenderer {
+
+    /* FIELDS */
+    private static final int SPARE_IMAGES = 2; // class field: images beyond one per encoder, so drawing can run ahead
+    private BodyManager bodyManager; // instance field: the bodies being simulated and drawn
+    private ParticleManager particleManager; // instance field: the particles being simulated and drawn
+    private Camera camera; // instance field: the view of the world drawn into each image
+    private RenderSnapshot snapshot; // instance field: filled from the simulation for each frame drawn
+    private int width; // instance field: width of the images
+    private int height; // instance field: height of the images
+    private int frameInterval; // instance field: a frame is written every this many steps
+    private File outputDir; // instance field: the folder the images are written to
+    private ExecutorService encoders; // instance field: threads writing the images to files
+    private ArrayBlockingQueue<BufferedImage> freeImages; // instance field: images not waiting to be written
+    private long step; // instance field: number of steps simulated
+    private int framesQueued; // instance field: number of frames handed to the encoders, used to number the files
+    private int framesSkipped; // instance field: frames skipped because every image was waiting to be written
+    private AtomicInteger framesWritten; // instance field: number of frames written to files
+    private AtomicReference<IOException> failure; // instance field: the first error writing a file, or null
+
+    /* ACCESSORS */
+
+    /**
+     * @return the bodies being simulated and drawn
+     */
+    public BodyManager getBodyManager() {
+        return bodyManager;
+    }
+
+    /**
+     * @return the particles being simulated and drawn
+     */
+    public ParticleManager getParticleManager() {
+        return particleManager;
+    }
+
+    /**
+     * @return the view of the world drawn into each image
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * @return number of steps simulated
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return number of frames handed to the encoders
+     */
+    public int getFramesQueued() {
+        return framesQueued;
+    }
+
+    /**
+     * @return frames skipped because every image was waiting to be written
+     */
+    public int getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * @return number of frames written to files so far
+     */
+    public int getFramesWritten() {
+        return framesWritten.get();
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * HeadlessRenderer: Creates a renderer with an empty simulation which writes
+     * every Nth step to a folder
+     *
+     * @param outputDir     the folder the images are written to, created if needed
+     * @param width         width of the images
+     * @param height        height of the images
+     * @param frameInterval a frame is written every this many steps
+     * @param encoderCount  number of threads writing the images to files
+     */
+    public HeadlessRenderer(File outputDir, int width, int height, int frameInterval, int encoderCount) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("image size must be positive: " + width + "x" + height);
+        }
+        if (frameInterval < 1) {
+            throw new IllegalArgumentException("frame interval must be positive: " + frameInterval);
+        }
+        if (encoderCount < 1) {
+            throw new IllegalArgumentException("encoder count must be positive: " + encoderCount);
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IllegalArgumentException("cannot create output folder: " + outputDir);
+        }
+        this.outputDir = outputDir;
+        this.width = width;
+        this.height = height;
+        this.frameInterval = frameInterval;
+
+        this.particleManager = new ParticleManager();
+        this.bodyManager = new BodyManager(particleManager);
+        this.camera = new Camera(width, height);
+        this.snapshot = new RenderSnapshot();
+
+        this.freeImages = new ArrayBlockingQueue<BufferedImage>(encoderCount + SPARE_IMAGES);
+        for (int i = 0; i < encoderCount + SPARE_IMAGES; i++) {
+            freeImages.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+        this.framesWritten = new AtomicInteger();
+        this.failure = new AtomicReference<IOException>();
+        this.encoders = Executors.newFixedThreadPool(encoderCount, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "png-encoder-" + count++);
+                // the simulation comes first; the encoders use what time is left
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /* METHODS */
+
+    /**
+     * step: Simulates one step, and draws and queues a frame if it is due
+     */
+    public void step() {
+        bodyManager.updateBodies();
+        particleManager.updateParticles();
+        if (step++ % frameInterval == 0) {
+            renderFrame();
+        }
+    }
+
+    /**
+     * run: Simulates a number of steps
+     *
+     * @param steps number of steps to simulate
+     */
+    public void run(long steps) {
+        for (long i = 0; i < steps; i++) {
+            step();
+        }
+    }
+
+    /**
+     * renderFrame: Draws the current state into a free image and queues it to be
+     * written. The frame is skipped if no image is free.
+     */
+    private void renderFrame() {
+        final BufferedImage image = freeImages.poll();
+        if (image == null) {
+            framesSkipped++;
+            return;
+        }
+        snapshot.clear(step);
+        camera.applyTo(snapshot);
+        bodyManager.addToSnapshot(snapshot);
+        particleManager.addToSnapshot(snapshot);
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            bodyManager.drawBodies(g, snapshot);
+            particleManager.drawParticles(g, snapshot);
+        } finally {
+            g.dispose();
+        }
+
+        final File file = new File(outputDir, String.format("frame_%06d.png", framesQueued++));
+        encoders.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ImageIO.write(image, "png", file);
+                    framesWritten.incrementAndGet();
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    freeImages.add(image);
+                }
+            }
+        });
+    }
+
+    /**
+     * close: Waits for the queued frames to be written and stops the encoders
+     *
+     * @throws IOException if any frame could not be written
+     */
+    public void close() throws IOException {
+        encoders.shutdown();
+        try {
+            while (!encoders.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting; every queued frame is written
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * main: Runs a simulation loaded from a file and writes it out as images
+     *
+     * @param args the body file, the output folder, the number of steps, and
+     *             optionally the frame interval (default 10), image width and
+     *             height (default 1280 720) and number of encoders (default 2)
+     * @throws IOException if any frame could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("usage: HeadlessRenderer bodyFile outputDir steps [interval] [width height] [encoders]");
+            return;
+        }
+        int interval = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int width = args.length > 5 ? Integer.parseInt(args[4]) : 1280;
+        int height = args.length > 5 ? Integer.parseInt(args[5]) : 720;
+        int encoderCount = args.length > 6 ? Integer.parseInt(args[6]) : 2;
+
+        HeadlessRenderer renderer = new HeadlessRenderer(new File(args[1]), width, height, interval, encoderCount);
+        FileManager fileManager = new FileManager(new String[] {"file 1"}, renderer.getBodyManager());
+        fileManager.addFile(args[0]);
+        fileManager.loadFile(0);
+
+        long start = System.nanoTime();
+        renderer.run(Long.parseLong(args[2]));
+        renderer.close();
+        System.out.printf("%d steps, %d frames written, %d skipped, %.1f s%n", renderer.getStep(),
+                renderer.getFramesWritten(), renderer.getFramesSkipped(), (System.nanoTime() - start) / 1e9);
+    }
+
+}
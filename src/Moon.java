@@ -6,8 +6,6 @@
  */
 
 import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.MouseInfo;
 
 public class Moon extends Circle {
 
@@ -30,7 +28,11 @@ public class Moon extends Circle {
      * @param orbitPlanet
      */
     public void setOrbitPlanet(String orbitPlanet) {
+        String oldOrbitPlanet = this.orbitPlanet;
         this.orbitPlanet = orbitPlanet;
+        if (getManager() != null) {
+            getManager().bodyOrbitChanged(this, oldOrbitPlanet);
+        }
     }
 
     /* CONSTRUCTORS */
@@ -64,28 +66,28 @@ public class Moon extends Circle {
      * Constructor that creates new Moon object with necessary given fields
      *
      * @param name
+     * @param pos         the position in the world
      * @param mass
      * @param age
      * @param radius
      * @param orbitPlanet
      */
-    public Moon(String name, double mass, int age, double radius, String orbitPlanet) {
-        super(name, new Vec(MouseInfo.getPointerInfo().getLocation().getX() , MouseInfo.getPointerInfo().getLocation().getY()), mass, false, true, new Vec(0,0), age, 0, 0, radius);
+    public Moon(String name, Vec pos, double mass, int age, double radius, String orbitPlanet) {
+        super(name, pos, mass, false, true, new Vec(0,0), age, 0, 0, radius);
         this.orbitPlanet = orbitPlanet;
     }
 
     /* METHODS */
 
     /**
-     * draw:
-     * Draws Moon simulation with given Graphics
+     * getColor:
+     * Retrieves the colour the Moon is drawn with
      *
-     * @param g Graphics
+     * @return the colour
      */
     @Override
-    public void draw(Graphics g) { // a temporary draw method
-        g.setColor(Color.WHITE);
-        g.fillOval((int) (pos.getX() - radius), (int) (pos.getY() - radius), (int) radius * 2, (int) radius * 2);
+    public Color getColor() {
+        return Color.WHITE;
     }
 
     /**
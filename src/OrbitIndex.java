@@ -0,0 +1,203 @@
+/**
+ * File Name: OrbitIndex.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class keeps track of which planets orbit each star and which moons orbit each planet, using the
+ * names stored in Planet.orbitStar and Moon.orbitPlanet. Children are looked up by the name of their parent, so a
+ * star or planet added, renamed or removed later is linked up without changing its children.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+public class OrbitIndex {
+
+    /* FIELDS */
+
+    private BodyNameIndex nameIndex; // instance field: finds the parents by name
+    private HashMap<String, LinkedHashSet<Planet>> planetsByStar; // instance field: the planets orbiting each star name
+    private HashMap<String, LinkedHashSet<Moon>> moonsByPlanet; // instance field: the moons orbiting each planet name
+
+    /* CONSTRUCTORS */
+
+    /**
+     * OrbitIndex: Constructor that creates an empty orbit index
+     *
+     * @param nameIndex the index used to find parents by name
+     */
+    public OrbitIndex(BodyNameIndex nameIndex) {
+        this.nameIndex = nameIndex;
+        this.planetsByStar = new HashMap<String, LinkedHashSet<Planet>>();
+        this.moonsByPlanet = new HashMap<String, LinkedHashSet<Moon>>();
+    }
+
+    /* METHODS */
+
+    /**
+     * getPlanets: Retrieves the planets orbiting a star, in the order they were
+     * added
+     *
+     * @param star the star
+     * @return the planets orbiting the star
+     */
+    public synchronized ArrayList<Planet> getPlanets(Star star) {
+        LinkedHashSet<Planet> planets = planetsByStar.get(star.getName());
+        return planets == null ? new ArrayList<Planet>() : new ArrayList<Planet>(planets);
+    }
+
+    /**
+     * getMoons: Retrieves the moons orbiting a planet, in the order they were
+     * added
+     *
+     * @param planet the planet
+     * @return the moons orbiting the planet
+     */
+    public synchronized ArrayList<Moon> getMoons(Planet planet) {
+        LinkedHashSet<Moon> moons = moonsByPlanet.get(planet.getName());
+        return moons == null ? new ArrayList<Moon>() : new ArrayList<Moon>(moons);
+    }
+
+    /**
+     * getStar: Retrieves the star a planet orbits
+     *
+     * @param planet the planet
+     * @return the star, or null if there is no star with the name the planet
+     *         orbits
+     */
+    public Star getStar(Planet planet) {
+        Body star = nameIndex.get(planet.getOrbitStar());
+        return star instanceof Star ? (Star) star : null;
+    }
+
+    /**
+     * getPlanet: Retrieves the planet a moon orbits
+     *
+     * @param moon the moon
+     * @return the planet, or null if there is no planet with the name the moon
+     *         orbits
+     */
+    public Planet getPlanet(Moon moon) {
+        Body planet = nameIndex.get(moon.getOrbitPlanet());
+        return planet instanceof Planet ? (Planet) planet : null;
+    }
+
+    /**
+     * getSystem: Walks the orbit hierarchy below a star. The star comes first,
+     * then each of its planets followed by the moons of that planet.
+     *
+     * @param star the star
+     * @return the star, its planets and their moons, in that order
+     */
+    public synchronized ArrayList<Body> getSystem(Star star) {
+        ArrayList<Body> system = new ArrayList<Body>();
+        system.add(star);
+        LinkedHashSet<Planet> planets = planetsByStar.get(star.getName());
+        if (planets != null) {
+            for (Planet planet : planets) {
+                system.add(planet);
+                LinkedHashSet<Moon> moons = moonsByPlanet.get(planet.getName());
+                if (moons != null) {
+                    system.addAll(moons);
+                }
+            }
+        }
+        return system;
+    }
+
+    /**
+     * add: Adds a body to the index if it is a planet or a moon
+     *
+     * @param body the body to add
+     */
+    public synchronized void add(Body body) {
+        if (body instanceof Planet) {
+            link(planetsByStar, ((Planet) body).getOrbitStar(), (Planet) body);
+        } else if (body instanceof Moon) {
+            link(moonsByPlanet, ((Moon) body).getOrbitPlanet(), (Moon) body);
+        }
+    }
+
+    /**
+     * remove: Removes a body from the index if it is a planet or a moon
+     *
+     * @param body the body to remove
+     */
+    public synchronized void remove(Body body) {
+        if (body instanceof Planet) {
+            unlink(planetsByStar, ((Planet) body).getOrbitStar(), (Planet) body);
+        } else if (body instanceof Moon) {
+            unlink(moonsByPlanet, ((Moon) body).getOrbitPlanet(), (Moon) body);
+        }
+    }
+
+    /**
+     * changeOrbit: Moves a planet or moon to the parent it now orbits, if it is in
+     * the index
+     *
+     * @param body      the planet or moon
+     * @param oldParent the name of the parent it orbited before
+     */
+    public synchronized void changeOrbit(Body body, String oldParent) {
+        if (body instanceof Planet) {
+            if (unlink(planetsByStar, oldParent, (Planet) body)) {
+                link(planetsByStar, ((Planet) body).getOrbitStar(), (Planet) body);
+            }
+        } else if (body instanceof Moon) {
+            if (unlink(moonsByPlanet, oldParent, (Moon) body)) {
+                link(moonsByPlanet, ((Moon) body).getOrbitPlanet(), (Moon) body);
+            }
+        }
+    }
+
+    /**
+     * rebuild: Replaces the contents of the index with a list of bodies
+     *
+     * @param bodies the bodies to index
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        planetsByStar.clear();
+        moonsByPlanet.clear();
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i) != null) {
+                add(bodies.get(i));
+            }
+        }
+    }
+
+    /**
+     * link: Adds a child under the name of its parent
+     *
+     * @param map    the children of each parent name
+     * @param parent the name of the parent
+     * @param child  the child
+     */
+    private static <T extends Body> void link(HashMap<String, LinkedHashSet<T>> map, String parent, T child) {
+        LinkedHashSet<T> children = map.get(parent);
+        if (children == null) {
+            children = new LinkedHashSet<T>();
+            map.put(parent, children);
+        }
+        children.add(child);
+    }
+
+    /**
+     * unlink: Removes a child from under the name of its parent
+     *
+     * @param map    the children of each parent name
+     * @param parent the name of the parent
+     * @param child  the child
+     * @return whether the child was under the name
+     */
+    private static <T extends Body> boolean unlink(HashMap<String, LinkedHashSet<T>> map, String parent, T child) {
+        LinkedHashSet<T> children = map.get(parent);
+        if (children == null || !children.remove(child)) {
+            return false;
+        }
+        if (children.isEmpty()) {
+            map.remove(parent);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * File Name: OrderedBodyIndex.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class keeps the bodies sorted by a property, such as their age or area, so that the bodies in a
+ * range of values, the bodies with the largest values, or every body in order can be found without sorting. The
+ * property is chosen by implementing keyOf. Bodies with equal values are ordered by when they were added.
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+public abstract class OrderedBodyIndex {
+
+    /* FIELDS */
+
+    private TreeSet<Entry> entries; // instance field: the bodies in order
+    private HashMap<Body, Entry> recorded; // instance field: the entry of each body
+    private long nextOrder; // instance field: the order given to the next body added
+
+    /* ACCESSORS */
+
+    /**
+     * @return the number of bodies in the index
+     */
+    public synchronized int getSize() {
+        return recorded.size();
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * OrderedBodyIndex: Constructor that creates an empty index
+     */
+    public OrderedBodyIndex() {
+        entries = new TreeSet<Entry>(new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                int c = Double.compare(a.key, b.key);
+                return c != 0 ? c : Long.compare(a.order, b.order);
+            }
+        });
+        recorded = new HashMap<Body, Entry>();
+    }
+
+    /* METHODS */
+
+    /**
+     * keyOf: Retrieves the property the bodies are sorted by
+     *
+     * @param body the body
+     * @return the value of the property
+     */
+    protected abstract double keyOf(Body body);
+
+    /**
+     * add: Adds a body to the index
+     *
+     * @param body the body to add
+     */
+    public synchronized void add(Body body) {
+        if (!recorded.containsKey(body)) {
+            Entry entry = new Entry(keyOf(body), nextOrder++, body);
+            recorded.put(body, entry);
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * remove: Removes a body from the index
+     *
+     * @param body the body to remove
+     */
+    public synchronized void remove(Body body) {
+        Entry entry = recorded.remove(body);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    /**
+     * update: Moves a body to its new place after its property has changed. The
+     * body keeps its place among bodies with the same value.
+     *
+     * @param body the body that changed
+     */
+    public synchronized void update(Body body) {
+        Entry entry = recorded.get(body);
+        if (entry != null && entry.key != keyOf(body)) {
+            entries.remove(entry);
+            entry.key = keyOf(body);
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * rebuild: Replaces the contents of the index with a list of bodies
+     *
+     * @param bodies the bodies to index
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        entries.clear();
+        recorded.clear();
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i) != null) {
+                add(bodies.get(i));
+            }
+        }
+    }
+
+    /**
+     * getSorted: Retrieves every body, from the smallest value to the largest
+     *
+     * @return the bodies in order
+     */
+    public synchronized ArrayList<Body> getSorted() {
+        ArrayList<Body> sorted = new ArrayList<Body>(entries.size());
+        for (Entry entry : entries) {
+            sorted.add(entry.body);
+        }
+        return sorted;
+    }
+
+    /**
+     * getRange: Retrieves the bodies with values from min to max, inclusive, from
+     * the smallest value to the largest
+     *
+     * @param min the smallest value
+     * @param max the largest value
+     * @return the bodies in order
+     */
+    public synchronized ArrayList<Body> getRange(double min, double max) {
+        return getRange(min, max, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * getRange: Retrieves one page of the bodies with values from min to max,
+     * inclusive, from the smallest value to the largest
+     *
+     * @param min    the smallest value
+     * @param max    the largest value
+     * @param offset the number of bodies in the range to skip
+     * @param limit  the most bodies to return
+     * @return the bodies in order
+     */
+    public synchronized ArrayList<Body> getRange(double min, double max, int offset, int limit) {
+        ArrayList<Body> range = new ArrayList<Body>();
+        if (!(min <= max)) {
+            return range;
+        }
+        Iterator<Entry> it = entries.subSet(new Entry(min, Long.MIN_VALUE, null), true,
+                new Entry(max, Long.MAX_VALUE, null), true).iterator();
+        for (int i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+        while (range.size() < limit && it.hasNext()) {
+            range.add(it.next().body);
+        }
+        return range;
+    }
+
+    /**
+     * getTop: Retrieves the bodies with the largest values, from the largest down
+     *
+     * @param k the number of bodies
+     * @return up to k bodies
+     */
+    public synchronized ArrayList<Body> getTop(int k) {
+        ArrayList<Body> top = new ArrayList<Body>();
+        Iterator<Entry> it = entries.descendingIterator();
+        while (top.size() < k && it.hasNext()) {
+            top.add(it.next().body);
+        }
+        return top;
+    }
+
+    /**
+     * Entry: This class stores the value of a body at its place in the index
+     */
+    private static class Entry {
+
+        /* FIELDS */
+        private double key; // instance field: the value of the property
+        private long order; // instance field: when the body was added
+        private Body body; // instance field: the body
+
+        /* CONSTRUCTORS */
+
+        /**
+         * Entry: Constructor that creates a new entry
+         *
+         * @param key   the value of the property
+         * @param order when the body was added
+         * @param body  the body
+         */
+        private Entry(double key, long order, Body body) {
+            this.key = key;
+            this.order = order;
+            this.body = body;
+        }
+    }
+
+}
@@ -2,41 +2,126 @@
  File Name: ParticleManager.java
  @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
  Date: January 17, 2022
- Description: This class represents manages Particles.
+ Description: This class represents manages Particles. The particles are stored in a fixed size ring buffer, with one
+ array for each property, so updating them does not create objects. New particles are added after the newest one and
+ expired particles are dropped from the oldest end, so no particles are ever shifted. When there are many particles
+ they are updated in parallel in chunks, since particles do not affect each other. The number of live particles is
+ kept near a budget: under load, fewer but larger particles are spawned with shorter lives, and overlapping particles
+ are merged into larger ones, so the particles cover about the same area at a bounded cost.
  */
 
-import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class ParticleManager {
 
     /* FIELDS */
-    private ArrayList<Particle> particles; // instance field: particles to manage
+    private double[] x; // instance field: x coordinate of each particle
+    private double[] y; // instance field: y coordinate of each particle
+    private double[] velX; // instance field: x velocity of each particle
+    private double[] velY; // instance field: y velocity of each particle
+    private double[] timeLeft; // instance field: time left before each particle expires
+    private double[] totalTime; // instance field: total time of each particle
+    private double[] radius; // instance field: radius of each particle
+    private int[] color; // instance field: RGB colour of each particle
+    private int capacity; // instance field: the most particles stored at once
+    private int head; // instance field: slot of the oldest particle
+    private int size; // instance field: number of slots in use, from the oldest particle to the newest
+    private Random rand; // instance field: random generator for new particles
+    private SpawnBuffer spawns; // instance field: particles requested since the last update, in order
+    private int[] expiredPrefix; // instance field: number of expired particles at the start of each chunk
+    private int[] liveCount; // instance field: number of live particles in each chunk
+    private int live; // instance field: number of particles that have not expired
+    private int budget; // instance field: the number of live particles to stay under
+    private long[] cellKeys; // instance field: the grid cell of each entry of the merge table
+    private int[] cellSlots; // instance field: the particle kept in each entry of the merge table
+    private int[] cellStamps; // instance field: the merge pass each entry of the merge table was filled in
+    private int mergeStamp; // instance field: the current merge pass
+    private int stepsSinceMerge; // instance field: steps since the last merge pass
+    private boolean parallel; // instance field: whether large updates are split across threads
+    private ParticleRenderer renderer; // instance field: draws the particles
     private static final double PARTICLE_SPEED = 0.2;
     private static final int PARTICLE_LIFE = 1000;
     private static final int NUM_PARTICLE_SPAWN = 10;
+    private static final int DEFAULT_CAPACITY = 1 << 17;
+    private static final int CHUNK_SIZE = 8192; // particles updated by each task
+    private static final int PARALLEL_THRESHOLD = 4 * CHUNK_SIZE; // fewer particles than this are updated serially
+    private static final int DEFAULT_BUDGET = 20000;
+    private static final double SOFT_LOAD = 0.5; // fraction of the budget at which spawning is throttled
+    private static final double MIN_LIFE_SCALE = 0.25; // shortest life, as a fraction of PARTICLE_LIFE
+    private static final double PRIORITY_SIZE = 20; // spawns this size or larger still get a particle over budget
+    private static final double HARD_LOAD = 1.25; // fraction of the budget at which nothing more is spawned
+    private static final int MERGE_INTERVAL = 8; // steps between merge passes while over budget
+    private static final double MERGE_CELL_SIZE = 32; // size of the grid cells particles are merged within
+    private static final double MAX_IMPOSTOR_RADIUS = 48; // particles this large are not merged into
 
     /* ACCESSORS */
 
     /**
-     * @return particles being managed
+     * @return number of slots in use, from the oldest particle to the newest.
+     *         Particles that expired while older ones were still alive are
+     *         counted until the older ones expire.
      */
-    public ArrayList<Particle> getParticles() {
-        return particles;
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the most particles stored at once
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of particles that have not expired
+     */
+    public int getLiveCount() {
+        return live;
+    }
+
+    /**
+     * @return the number of live particles to stay under
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the renderer that draws the particles
+     */
+    public ParticleRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * @return whether large updates are split across threads
+     */
+    public boolean isParallel() {
+        return parallel;
     }
 
     /* MUTATORS */
 
     /**
-     * @param particles the particles to set
+     * @param parallel whether large updates are split across threads
      */
-    public void setParticles(ArrayList<Particle> particles) {
-        this.particles = particles;
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param budget the number of live particles to stay under
+     */
+    public void setBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("budget must be positive: " + budget);
+        }
+        this.budget = budget;
     }
 
     /* CONSTRUCTORS */
@@ -45,72 +130,419 @@ public class ParticleManager {
      * ParticleManager: Creates empty default ParticleManager
      */
     public ParticleManager() {
-        this.particles = new ArrayList<Particle>();
+        this(DEFAULT_CAPACITY);
     }
 
     /**
-     * ParticleManager: Creates ParticleManager to manage given array list of
-     * Particles
+     * ParticleManager: Creates empty ParticleManager which stores up to the given
+     * number of particles. Once full, adding a particle replaces the oldest one.
      *
-     * @param particles ArrayList<Particle> particles to manage
+     * @param capacity the most particles stored at once
      */
-    public ParticleManager(ArrayList<Particle> particles) {
-        this.particles = particles;
+    public ParticleManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.velX = new double[capacity];
+        this.velY = new double[capacity];
+        this.timeLeft = new double[capacity];
+        this.totalTime = new double[capacity];
+        this.radius = new double[capacity];
+        this.color = new int[capacity];
+        this.rand = new Random();
+        this.spawns = new SpawnBuffer();
+        this.expiredPrefix = new int[(capacity + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        this.liveCount = new int[expiredPrefix.length];
+        this.budget = Math.min(DEFAULT_BUDGET, capacity);
+        this.parallel = true;
+        this.renderer = new ParticleRenderer();
     }
 
     /* METHODS */
 
     /**
-     * addParticle: Adds a Particle to manage based on given fields
+     * addParticle: Adds a Particle to manage based on given fields. The
+     * particles are stored at the start of the next update, in the order they
+     * were requested, so they can be requested while an update is running.
+     *
+     * Once the live and requested particles pass half the budget, fewer
+     * particles are spawned, made larger so they cover the same area, and given
+     * shorter lives. Over budget, only spawns of at least PRIORITY_SIZE get a
+     * particle, so the breakup of large bodies is still shown, until the hard
+     * limit is reached.
      *
      * @param pos      position
      * @param size     size
      */
     public void addParticle(Vec pos, double size) {
-        Random rand = new Random();
-        for (int i = 0; i < NUM_PARTICLE_SPAWN; i++) {
-            double angle = rand.nextDouble() * Math.PI * 2;
-            double magnitude = rand.nextDouble() * PARTICLE_SPEED - PARTICLE_SPEED / 2;
-            double radius = rand.nextDouble() * size / 2 + size / 2;
-            Particle p = new Particle(pos, new Vec(Math.cos(angle) * magnitude, Math.sin(angle) * magnitude),
-                    PARTICLE_LIFE, Color.GRAY, radius);
-            particles.add(p);
+        synchronized (spawns) {
+            double load = (double) (live + spawns.count) / budget;
+            double throttle = Math.max(0, Math.min(1, (load - SOFT_LOAD) / (1 - SOFT_LOAD)));
+            int count = (int) Math.ceil(NUM_PARTICLE_SPAWN * (1 - throttle));
+            if (count == 0 && size >= PRIORITY_SIZE && load < HARD_LOAD) {
+                count = 1;
+            }
+            if (count == 0) {
+                return;
+            }
+            double grow = Math.sqrt((double) NUM_PARTICLE_SPAWN / count);
+            double life = PARTICLE_LIFE * (1 - throttle * (1 - MIN_LIFE_SCALE));
+            for (int i = 0; i < count; i++) {
+                double angle = rand.nextDouble() * Math.PI * 2;
+                double magnitude = rand.nextDouble() * PARTICLE_SPEED - PARTICLE_SPEED / 2;
+                double r = (rand.nextDouble() * size / 2 + size / 2) * grow;
+                spawns.add(pos.getX(), pos.getY(), Math.cos(angle) * magnitude, Math.sin(angle) * magnitude, life,
+                        Color.GRAY.getRGB(), r);
+            }
+        }
+    }
+
+    /**
+     * flushSpawns: Stores the requested particles in the order they were
+     * requested
+     */
+    private void flushSpawns() {
+        synchronized (spawns) {
+            for (int i = 0; i < spawns.count; i++) {
+                spawn(spawns.x[i], spawns.y[i], spawns.velX[i], spawns.velY[i], spawns.life[i], spawns.color[i],
+                        spawns.radius[i]);
+            }
+            spawns.count = 0;
+        }
+    }
+
+    /**
+     * spawn: Stores a new particle after the newest one, replacing the oldest
+     * particle if the buffer is full
+     *
+     * @param px   x coordinate of the position
+     * @param py   y coordinate of the position
+     * @param pvx  x component of the velocity
+     * @param pvy  y component of the velocity
+     * @param life time before the particle expires
+     * @param rgb  RGB colour
+     * @param r    radius
+     */
+    private void spawn(double px, double py, double pvx, double pvy, double life, int rgb, double r) {
+        if (size == capacity) {
+            if (timeLeft[head] > 0) {
+                live--;
+            }
+            head = head + 1 == capacity ? 0 : head + 1;
+            size--;
+        }
+        int i = head + size;
+        if (i >= capacity) {
+            i -= capacity;
         }
+        x[i] = px;
+        y[i] = py;
+        velX[i] = pvx;
+        velY[i] = pvy;
+        timeLeft[i] = life;
+        totalTime[i] = life;
+        color[i] = rgb;
+        radius[i] = r;
+        size++;
+        live++;
     }
 
-    // TODO: comment
-    public void drawParticles(Graphics g) {
-        for (int i = 0; i < particles.size(); i++) {
-            Particle p = particles.get(i);
-            if (p != null) {
-                p.draw(g);
+    /**
+     * drawParticles: Draws the particles in a render snapshot, fading them out
+     * as their time runs out. It only reads the snapshot, so it can run while
+     * the particles are being updated.
+     *
+     * @param g        Graphics
+     * @param snapshot the snapshot to draw
+     */
+    public void drawParticles(Graphics g, RenderSnapshot snapshot) {
+        renderer.render(g, snapshot);
+    }
+
+    /**
+     * addToSnapshot: Adds the particles that have not expired to a render
+     * snapshot. Called on the simulation thread between updates.
+     *
+     * @param snapshot the snapshot being filled
+     */
+    public void addToSnapshot(RenderSnapshot snapshot) {
+        for (int k = 0; k < size; k++) {
+            int i = slot(k);
+            if (timeLeft[i] > 0) {
+                snapshot.addParticle(x[i], y[i], radius[i], timeLeft[i] / totalTime[i], color[i]);
             }
         }
-        AlphaComposite alcom = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1);
-        ((Graphics2D) g).setComposite(alcom);
     }
 
     /**
-     * updateParticles: updates Particle effects
+     * slot: Finds the slot of a particle in the ring buffer
+     *
+     * @param i the particle, counted from the oldest
+     * @return the slot
+     */
+    private int slot(int i) {
+        int j = head + i;
+        return j >= capacity ? j - capacity : j;
+    }
+
+    /**
+     * updateParticles: updates Particle effects. The particles are updated in
+     * chunks, in parallel when there are enough of them, and each chunk counts
+     * the expired particles at its start. Expired particles at the oldest end
+     * are then dropped by moving the head forward past those counts. If there
+     * are still more live particles than the budget, overlapping particles are
+     * merged.
      */
     public void updateParticles() {
+        flushSpawns();
 
-        for (Particle p : particles) {
-            p.setPos(p.getPos().getAdd(p.getVel()));
-            p.setTimeLeft(p.getTimeLeft() - 1);
-            if (p.getTimeLeft() <= 0) {
-                p.setDestroyed(true);
+        int n = size;
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (parallel && n >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new UpdateTask(this, 0, chunks));
+        } else {
+            for (int c = 0; c < chunks; c++) {
+                updateChunk(c);
             }
         }
 
-        Iterator<Particle> p = particles.iterator();
-        while (p.hasNext()) {
-            Particle obj = p.next();
-            if (obj.isDestroyed()) {
-                p.remove();
+        live = 0;
+        for (int c = 0; c < chunks; c++) {
+            live += liveCount[c];
+        }
+        int dropped = 0;
+        for (int c = 0; c < chunks; c++) {
+            dropped += expiredPrefix[c];
+            if (expiredPrefix[c] < Math.min(CHUNK_SIZE, n - c * CHUNK_SIZE)) {
+                break;
             }
         }
+        head = (head + dropped) % capacity;
+        size -= dropped;
+        if (size == 0) {
+            head = 0;
+        }
+        stepsSinceMerge++;
+        if (live > budget && stepsSinceMerge >= MERGE_INTERVAL) {
+            mergeParticles();
+            stepsSinceMerge = 0;
+        }
+    }
 
+    /**
+     * mergeParticles: Merges overlapping particles into larger ones until there
+     * are no more live particles than the budget. It runs every MERGE_INTERVAL
+     * steps while over budget, since most particles move little in between. Particles are grouped by grid
+     * cell and each particle is merged into the one kept for its cell if they
+     * overlap. The merged particle keeps the total area, and its position,
+     * velocity and opacity are averaged by area. The particle merged away
+     * expires and its slot is dropped once the head passes it.
+     */
+    private void mergeParticles() {
+        if (cellKeys == null) {
+            int tableSize = Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+            cellKeys = new long[tableSize];
+            cellSlots = new int[tableSize];
+            cellStamps = new int[tableSize];
+        }
+        mergeStamp++;
+        if (mergeStamp == 0) {
+            Arrays.fill(cellStamps, 0);
+            mergeStamp = 1;
+        }
+        int mask = cellKeys.length - 1;
+        for (int k = 0; k < size && live > budget; k++) {
+            int j = slot(k);
+            if (timeLeft[j] <= 0) {
+                continue;
+            }
+            long key = (long) Math.floor(x[j] / MERGE_CELL_SIZE) << 32
+                    | ((long) Math.floor(y[j] / MERGE_CELL_SIZE) & 0xffffffffL);
+            int e = (int) (key ^ key >>> 29) * 0x9e3779b9 & mask;
+            while (cellStamps[e] == mergeStamp && cellKeys[e] != key) {
+                e = (e + 1) & mask;
+            }
+            if (cellStamps[e] != mergeStamp) {
+                cellStamps[e] = mergeStamp;
+                cellKeys[e] = key;
+                cellSlots[e] = j;
+                continue;
+            }
+            int r = cellSlots[e];
+            double dx = x[j] - x[r];
+            double dy = y[j] - y[r];
+            double reach = radius[j] + radius[r];
+            if (timeLeft[r] <= 0 || radius[r] >= MAX_IMPOSTOR_RADIUS || dx * dx + dy * dy > reach * reach) {
+                cellSlots[e] = j;
+                continue;
+            }
+            double areaR = radius[r] * radius[r];
+            double areaJ = radius[j] * radius[j];
+            double total = areaR + areaJ;
+            x[r] = (x[r] * areaR + x[j] * areaJ) / total;
+            y[r] = (y[r] * areaR + y[j] * areaJ) / total;
+            velX[r] = (velX[r] * areaR + velX[j] * areaJ) / total;
+            velY[r] = (velY[r] * areaR + velY[j] * areaJ) / total;
+            double alpha = (timeLeft[r] / totalTime[r] * areaR + timeLeft[j] / totalTime[j] * areaJ) / total;
+            timeLeft[r] = alpha * totalTime[r];
+            radius[r] = Math.sqrt(total);
+            timeLeft[j] = 0;
+            live--;
+        }
+    }
+
+    /**
+     * updateChunk: updates one chunk of particles, counted from the oldest, and
+     * records how many particles at the start of the chunk have expired and how
+     * many are still live
+     *
+     * @param c the chunk
+     */
+    private void updateChunk(int c) {
+        int from = head + c * CHUNK_SIZE;
+        int to = head + Math.min(size, (c + 1) * CHUNK_SIZE);
+        int prefix;
+        liveCount[c] = 0;
+        if (from >= capacity) {
+            prefix = updateRange(c, from - capacity, to - capacity);
+        } else if (to <= capacity) {
+            prefix = updateRange(c, from, to);
+        } else {
+            prefix = updateRange(c, from, capacity);
+            if (prefix == capacity - from) {
+                prefix += updateRange(c, 0, to - capacity);
+            } else {
+                updateRange(c, 0, to - capacity);
+            }
+        }
+        expiredPrefix[c] = prefix;
+    }
+
+    /**
+     * updateRange: moves the particles in a run of slots and counts down their
+     * time left, adding the particles still live to the count of their chunk.
+     * Expired particles are left where they are.
+     *
+     * @param c    the chunk the slots are in
+     * @param from the first slot
+     * @param to   the slot after the last
+     * @return the number of expired particles at the start of the run
+     */
+    private int updateRange(int c, int from, int to) {
+        int prefix = -1;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (timeLeft[i] > 0) {
+                x[i] += velX[i];
+                y[i] += velY[i];
+                timeLeft[i]--;
+            }
+            if (timeLeft[i] > 0) {
+                count++;
+                if (prefix < 0) {
+                    prefix = i - from;
+                }
+            }
+        }
+        liveCount[c] += count;
+        return prefix < 0 ? to - from : prefix;
+    }
+
+    /**
+     * UpdateTask: This class updates a range of chunks, splitting it in half
+     * until each task has one chunk
+     */
+    @SuppressWarnings("serial")
+    private static class UpdateTask extends RecursiveAction {
+
+        /* FIELDS */
+        private ParticleManager pm; // instance field: the particles to update
+        private int from; // instance field: the first chunk
+        private int to; // instance field: the chunk after the last
+
+        /* CONSTRUCTORS */
+
+        /**
+         * UpdateTask: Constructor that creates a task for a range of chunks
+         *
+         * @param pm   the particles to update
+         * @param from the first chunk
+         * @param to   the chunk after the last
+         */
+        private UpdateTask(ParticleManager pm, int from, int to) {
+            this.pm = pm;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* METHODS */
+
+        /**
+         * compute: updates the chunks
+         */
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                pm.updateChunk(from);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new UpdateTask(pm, from, mid), new UpdateTask(pm, mid, to));
+            }
+        }
+    }
+
+    /**
+     * SpawnBuffer: This class stores the particles requested since the last
+     * update, in the order they were requested
+     */
+    private static class SpawnBuffer {
+
+        /* FIELDS */
+        private double[] x = new double[64]; // instance field: x coordinate of each particle
+        private double[] y = new double[64]; // instance field: y coordinate of each particle
+        private double[] velX = new double[64]; // instance field: x velocity of each particle
+        private double[] velY = new double[64]; // instance field: y velocity of each particle
+        private double[] life = new double[64]; // instance field: lifetime of each particle
+        private double[] radius = new double[64]; // instance field: radius of each particle
+        private int[] color = new int[64]; // instance field: RGB colour of each particle
+        private int count; // instance field: number of particles requested
+
+        /* METHODS */
+
+        /**
+         * add: Stores a requested particle, growing the arrays if needed
+         *
+         * @param px   x coordinate of the position
+         * @param py   y coordinate of the position
+         * @param pvx  x component of the velocity
+         * @param pvy  y component of the velocity
+         * @param pl   time before the particle expires
+         * @param rgb  RGB colour
+         * @param r    radius
+         */
+        private void add(double px, double py, double pvx, double pvy, double pl, int rgb, double r) {
+            if (count == x.length) {
+                int n = count * 2;
+                x = Arrays.copyOf(x, n);
+                y = Arrays.copyOf(y, n);
+                velX = Arrays.copyOf(velX, n);
+                velY = Arrays.copyOf(velY, n);
+                life = Arrays.copyOf(life, n);
+                radius = Arrays.copyOf(radius, n);
+                color = Arrays.copyOf(color, n);
+            }
+            x[count] = px;
+            y[count] = py;
+            velX[count] = pvx;
+            velY[count] = pvy;
+            life[count] = pl;
+            radius[count] = r;
+            color[count] = rgb;
+            count++;
+        }
     }
 
-}
\ No newline at end of file
+}
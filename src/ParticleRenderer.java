@@ -0,0 +1,265 @@
+/**
+ File Name: ParticleRenderer.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class draws the particles of a render snapshot. The opacity of each particle is rounded into one of
+ a few bins and the particles are drawn bin by bin, so the composite only changes once per bin instead of once per
+ particle. The particles can instead be drawn straight into the pixels of an image, which is then drawn in one call.
+ The time taken to draw each frame is recorded.
+ */
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+public class ParticleRenderer {
+
+    /* FIELDS */
+    private static final int NUM_BINS = 16; // class field: number of opacities the particles are rounded to
+    private static final double AVERAGE_WEIGHT = 0.1; // class field: weight of the newest frame in the average time
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[NUM_BINS]; // class field: one per bin
+    static {
+        for (int b = 0; b < NUM_BINS; b++) {
+            COMPOSITES[b] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (b + 1) / (float) NUM_BINS);
+        }
+    }
+    private boolean rasterize; // instance field: whether particles are drawn into an image first
+    private int[] order; // instance field: the particles sorted by bin
+    private int[] bins; // instance field: the bin of each particle, or -1 if it has expired
+    private int[] binStart; // instance field: where each bin starts in order
+    private Color lastColor; // instance field: the last colour used, kept so it is not created again
+    private BufferedImage image; // instance field: the image particles are drawn into when rasterizing
+    private int[] pixels; // instance field: the pixels of the image
+    private long lastFrameNanos; // instance field: time taken to draw the last frame
+    private double averageFrameNanos; // instance field: running average of the time taken to draw a frame
+
+    /* ACCESSORS */
+
+    /**
+     * @return whether particles are drawn into an image first
+     */
+    public boolean isRasterize() {
+        return rasterize;
+    }
+
+    /**
+     * @return time taken to draw the last frame, in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * @return running average of the time taken to draw a frame, in nanoseconds
+     */
+    public double getAverageFrameNanos() {
+        return averageFrameNanos;
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param rasterize whether particles are drawn into an image first
+     */
+    public void setRasterize(boolean rasterize) {
+        this.rasterize = rasterize;
+        if (!rasterize) {
+            image = null;
+            pixels = null;
+        }
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * ParticleRenderer: Creates a renderer that draws particles with Graphics
+     */
+    public ParticleRenderer() {
+        order = new int[0];
+        bins = new int[0];
+        binStart = new int[NUM_BINS + 1];
+    }
+
+    /* METHODS */
+
+    /**
+     * render: Draws the particles that have not expired and records the time
+     * taken
+     *
+     * @param g        Graphics
+     * @param snapshot the particles to draw
+     */
+    public void render(Graphics g, RenderSnapshot snapshot) {
+        long start = System.nanoTime();
+        int n = snapshot.getParticleCount();
+        Rectangle clip = g.getClipBounds();
+        if (rasterize && clip != null) {
+            if (!clip.isEmpty()) {
+                rasterize(g, snapshot, n, clip);
+            }
+        } else {
+            drawBinned((Graphics2D) g, snapshot, n);
+        }
+        lastFrameNanos = System.nanoTime() - start;
+        averageFrameNanos = averageFrameNanos == 0 ? lastFrameNanos
+                : averageFrameNanos + AVERAGE_WEIGHT * (lastFrameNanos - averageFrameNanos);
+    }
+
+    /**
+     * drawBinned: Sorts the particles into bins by opacity and draws each bin
+     * with one composite
+     *
+     * @param g2       Graphics
+     * @param snapshot the particles to draw
+     * @param n        the number of particles
+     */
+    private void drawBinned(Graphics2D g2, RenderSnapshot snapshot, int n) {
+        if (order.length < n) {
+            order = new int[n];
+            bins = new int[n];
+        }
+        Arrays.fill(binStart, 0);
+        for (int i = 0; i < n; i++) {
+            double alpha = snapshot.getParticleAlpha(i);
+            if (alpha <= 0) {
+                bins[i] = -1;
+            } else {
+                bins[i] = Math.min(NUM_BINS - 1, (int) (alpha * NUM_BINS));
+                binStart[bins[i] + 1]++;
+            }
+        }
+        for (int b = 0; b < NUM_BINS; b++) {
+            binStart[b + 1] += binStart[b];
+        }
+        for (int i = 0; i < n; i++) {
+            if (bins[i] >= 0) {
+                order[binStart[bins[i]]++] = i;
+            }
+        }
+        // each bin start was moved to the start of the next bin, so move them back
+        for (int b = NUM_BINS; b > 0; b--) {
+            binStart[b] = binStart[b - 1];
+        }
+        binStart[0] = 0;
+
+        Composite oldComposite = g2.getComposite();
+        for (int b = 0; b < NUM_BINS; b++) {
+            if (binStart[b] == binStart[b + 1]) {
+                continue;
+            }
+            g2.setComposite(COMPOSITES[b]);
+            for (int k = binStart[b]; k < binStart[b + 1]; k++) {
+                int i = order[k];
+                g2.setColor(colorOf(snapshot.getParticleColor(i)));
+                double x = snapshot.toScreenX(snapshot.getParticleX(i));
+                double y = snapshot.toScreenY(snapshot.getParticleY(i));
+                double radius = snapshot.getParticleRadius(i) * snapshot.getZoom();
+                int r = (int) radius;
+                g2.fillOval((int) (x - radius), (int) (y - radius), r * 2, r * 2);
+            }
+        }
+        g2.setComposite(oldComposite);
+    }
+
+    /**
+     * rasterize: Draws the particles into the pixels of an image covering the
+     * clip, blending each over what is already there, then draws the image
+     *
+     * @param g        Graphics
+     * @param snapshot the particles to draw
+     * @param n        the number of particles
+     * @param clip     the area being drawn
+     */
+    private void rasterize(Graphics g, RenderSnapshot snapshot, int n, Rectangle clip) {
+        int w = clip.width;
+        int h = clip.height;
+        if (image == null || image.getWidth() < w || image.getHeight() < h) {
+            image = new BufferedImage(Math.max(w, image == null ? 0 : image.getWidth()),
+                    Math.max(h, image == null ? 0 : image.getHeight()), BufferedImage.TYPE_INT_ARGB_PRE);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        int stride = image.getWidth();
+        for (int row = 0; row < h; row++) {
+            Arrays.fill(pixels, row * stride, row * stride + w, 0);
+        }
+
+        for (int i = 0; i < n; i++) {
+            double alpha = snapshot.getParticleAlpha(i);
+            if (alpha <= 0) {
+                continue;
+            }
+            double radius = snapshot.getParticleRadius(i) * snapshot.getZoom();
+            int d = (int) radius * 2;
+            if (d <= 0) {
+                continue;
+            }
+            // the same box fillOval would use, relative to the clip
+            int x0 = (int) (snapshot.toScreenX(snapshot.getParticleX(i)) - radius) - clip.x;
+            int y0 = (int) (snapshot.toScreenY(snapshot.getParticleY(i)) - radius) - clip.y;
+            if (x0 >= w || y0 >= h || x0 + d <= 0 || y0 + d <= 0) {
+                continue;
+            }
+            int a = (int) (alpha * 255 + 0.5);
+            int rgb = snapshot.getParticleColor(i);
+            int src = a << 24 | (((rgb >> 16) & 0xff) * a / 255) << 16 | (((rgb >> 8) & 0xff) * a / 255) << 8
+                    | (rgb & 0xff) * a / 255;
+            int inv = 255 - a;
+            double cx = x0 + d / 2.0;
+            double cy = y0 + d / 2.0;
+            double rr = d * d / 4.0;
+            int rowEnd = Math.min(y0 + d, h);
+            for (int row = Math.max(y0, 0); row < rowEnd; row++) {
+                double dy = row + 0.5 - cy;
+                double span = rr - dy * dy;
+                if (span < 0) {
+                    continue;
+                }
+                double dx = Math.sqrt(span);
+                int from = Math.max(Math.max(x0, 0), (int) Math.ceil(cx - dx - 0.5));
+                int to = Math.min(Math.min(x0 + d, w) - 1, (int) Math.floor(cx + dx - 0.5));
+                int p = row * stride + from;
+                for (int col = from; col <= to; col++, p++) {
+                    pixels[p] = inv == 0 ? src : blend(src, pixels[p], inv);
+                }
+            }
+        }
+        g.drawImage(image, clip.x, clip.y, clip.x + w, clip.y + h, 0, 0, w, h, null);
+    }
+
+    /**
+     * blend: Draws a premultiplied colour over another
+     *
+     * @param src the colour on top
+     * @param dst the colour underneath
+     * @param inv 255 minus the opacity of the colour on top
+     * @return the blended colour
+     */
+    private static int blend(int src, int dst, int inv) {
+        int a = (src >>> 24) + ((dst >>> 24) * inv + 127) / 255;
+        int r = ((src >> 16) & 0xff) + (((dst >> 16) & 0xff) * inv + 127) / 255;
+        int gr = ((src >> 8) & 0xff) + (((dst >> 8) & 0xff) * inv + 127) / 255;
+        int b = (src & 0xff) + ((dst & 0xff) * inv + 127) / 255;
+        return a << 24 | r << 16 | gr << 8 | b;
+    }
+
+    /**
+     * colorOf: Retrieves a Color for an RGB value, reusing the last one if it
+     * is the same
+     *
+     * @param rgb the RGB value
+     * @return the colour
+     */
+    private Color colorOf(int rgb) {
+        if (lastColor == null || lastColor.getRGB() != (rgb | 0xff000000)) {
+            lastColor = new Color(rgb);
+        }
+        return lastColor;
+    }
+
+}
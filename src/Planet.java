@@ -6,8 +6,6 @@
  */
 
 import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.MouseInfo;
 
 public class Planet extends Circle {
 
@@ -16,10 +14,10 @@ public class Planet extends Circle {
     protected String orbitStar; // instance field: Star that this Planet orbits
     private int numMoons; // instance field: number of Moons orbiting Planet
     protected Moon[] moons; // instance field: array of Moons orbiting Planet
-    protected boolean visited; // instance field: marker for if Planet has been visited in a trip
 
     private static final int MAX_MOONS = 20; // class field (constant): maximum number of Moons to orbit Planet
     private static final double MAX_IMPULSE = 800; // class field (constant): maximum value for Planet's impulse
+    private static final Color COLOR = new Color(0, 153, 0); // class field (constant): colour the Planet is drawn with
 
     /* ACCESSORS */
 
@@ -65,13 +63,6 @@ public class Planet extends Circle {
         return moons;
     }
 
-    /**
-     * @return whether planet was visited during a trip
-     */
-    public boolean isVisited() {
-        return visited;
-    }
-
     /* MUTATORS */
 
     /**
@@ -79,13 +70,18 @@ public class Planet extends Circle {
      */
     public void setPopulation(int population) {
         this.population = population;
+        propertiesChanged();
     }
 
     /**
      * @param orbitStar the orbit Star to set
      */
     public void setOrbitStar(String orbitStar) {
+        String oldOrbitStar = this.orbitStar;
         this.orbitStar = orbitStar;
+        if (getManager() != null) {
+            getManager().bodyOrbitChanged(this, oldOrbitStar);
+        }
     }
 
     /**
@@ -96,13 +92,6 @@ public class Planet extends Circle {
         numMoons = moons.length;
     }
 
-    /**
-     * @param visited the boolean to set
-     */
-    public void setVisited(boolean visited) {
-        this.visited = visited;
-    }
-
     /* CONSTRUCTORS */
 
     /**
@@ -136,13 +125,14 @@ public class Planet extends Circle {
      * Constructor that creates a new Planet object with necessary given fields
      *
      * @param name
+     * @param pos       the position in the world
      * @param mass
      * @param age
      * @param radius
      * @param orbitStar
      */
-    public Planet(String name, double mass, int age, double radius, String orbitStar) {
-        super(name, new Vec(MouseInfo.getPointerInfo().getLocation().getX() , MouseInfo.getPointerInfo().getLocation().getY()), mass, false, true, new Vec(0,0), age, 0, 0, radius);
+    public Planet(String name, Vec pos, double mass, int age, double radius, String orbitStar) {
+        super(name, pos, mass, false, true, new Vec(0,0), age, 0, 0, radius);
         this.orbitStar = orbitStar;
         numMoons = 0;
     }
@@ -185,14 +175,14 @@ public class Planet extends Circle {
     }
 
     /**
-     * draw:
-     * Draws Star simulation with given Graphics
+     * getColor:
+     * Retrieves the colour the Planet is drawn with
      *
-     * @param g Graphics
+     * @return the colour
      */
-    public void draw(Graphics g) { // temp draw method
-        g.setColor(new Color(0,153,0));
-        g.fillOval((int) (pos.getX() - radius), (int) (pos.getY() - radius), (int) radius * 2, (int) radius * 2);
+    @Override
+    public Color getColor() {
+        return COLOR;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+/**
+ * File Name: PlanetPath.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class represents a path between planets, storing the planets visited in order and the total
+ * distance travelled.
+ */
+
+import java.util.ArrayList;
+
+public class PlanetPath {
+
+    /* FIELDS */
+    private double distance; // instance field: total distance travelled
+    private String planetsVisited; // instance field: list planets visited in order
+    private ArrayList<Planet> planets; // instance field: the planets visited in order
+
+    /* ACCESSORS */
+
+    /**
+     * @return total distance travelled
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return the names of the planets visited in order, separated by spaces
+     */
+    public String getPlanetsVisited() {
+        return planetsVisited;
+    }
+
+    /**
+     * @return the planets visited in order
+     */
+    public ArrayList<Planet> getPlanets() {
+        return planets;
+    }
+
+    /* CONSTRUCTOR */
+
+    /**
+     * PlanetPath: Constructor that creates a new path from the planets visited in
+     * order
+     *
+     * @param planets the planets visited in order
+     */
+    public PlanetPath(ArrayList<Planet> planets) {
+        this.planets = planets;
+        this.distance = 0;
+        this.planetsVisited = "";
+        for (int i = 0; i < planets.size(); i++) {
+            if (i > 0) {
+                this.distance += planets.get(i - 1).distanceTo(planets.get(i));
+                this.planetsVisited += " ";
+            }
+            this.planetsVisited += planets.get(i).getName();
+        }
+    }
+
+    /* METHODS */
+
+    /**
+     * toString: Organizes properties into a String
+     *
+     * @return String with organized properties
+     */
+    public String toString() {
+        return "\n\nTotal Distance: " + distance + "\n\nPath: " + planetsVisited;
+    }
+
+}
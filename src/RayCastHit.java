@@ -0,0 +1,87 @@
+/**
+ * File Name: RayCastHit.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class stores the first body hit by a ray cast or a circle cast.
+ */
+
+public class RayCastHit {
+
+    /* FIELDS */
+
+    private Body body; // instance field: the body that was hit
+    private double fraction; // instance field: how far along the cast the hit is, from 0 to 1
+    private double distance; // instance field: the distance travelled before the hit
+    private Vec point; // instance field: the position of the ray or the center of the circle at the hit
+    private Vec normal; // instance field: the surface normal of the body at the hit
+
+    /* ACCESSORS */
+
+    /**
+     * @return the body that was hit
+     */
+    public Body getBody() {
+        return body;
+    }
+
+    /**
+     * @return how far along the cast the hit is, from 0 to 1
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * @return the distance travelled before the hit
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return the position of the ray, or the center of the circle, at the hit
+     */
+    public Vec getPoint() {
+        return point;
+    }
+
+    /**
+     * @return the surface normal of the body at the hit, pointing out of the body
+     */
+    public Vec getNormal() {
+        return normal;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * RayCastHit: Constructor that creates a new hit
+     *
+     * @param body     the body that was hit
+     * @param fraction how far along the cast the hit is, from 0 to 1
+     * @param start    the start of the cast
+     * @param end      the end of the cast
+     * @param normal   the surface normal at the hit
+     */
+    public RayCastHit(Body body, double fraction, Vec start, Vec end, Vec normal) {
+        Vec d = end.getSub(start);
+        this.body = body;
+        this.fraction = fraction;
+        this.distance = d.getLength() * fraction;
+        this.point = start.getAdd(d.getMult(fraction));
+        this.normal = normal;
+    }
+
+    /* METHODS */
+
+    /**
+     * toString: Organizes hit information into a String
+     *
+     * @return String organized information
+     */
+    @Override
+    public String toString() {
+        return "\nHit: " + body.getName() + "\nDistance: " + distance + "\nPoint: " + point + "\nNormal: " + normal;
+    }
+
+}
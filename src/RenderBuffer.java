@@ -0,0 +1,68 @@
+/**
+ File Name: RenderBuffer.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class passes render snapshots from the simulation thread to the drawing thread using three
+ snapshots. The simulation fills the back snapshot and publishes it, the drawing code takes the newest published
+ snapshot as its front snapshot, and the third is the one waiting between them. Neither thread waits for the other and
+ each snapshot is only used by one thread at a time. There should be one thread filling and one thread drawing.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RenderBuffer {
+
+    /* FIELDS */
+    private static final int FRESH = 4; // class field: set on the waiting index when it has not been taken yet
+    private static final int INDEX_MASK = 3; // class field: the bits of the waiting index that hold the index
+    private RenderSnapshot[] snapshots; // instance field: the three snapshots
+    private AtomicInteger waiting; // instance field: index of the snapshot between the threads, plus FRESH if new
+    private int back; // instance field: index of the snapshot the simulation is filling
+    private int front; // instance field: index of the snapshot being drawn
+
+    /* ACCESSORS */
+
+    /**
+     * @return the snapshot for the simulation to fill
+     */
+    public RenderSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * RenderBuffer: Creates a buffer of three empty snapshots
+     */
+    public RenderBuffer() {
+        snapshots = new RenderSnapshot[] { new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot() };
+        front = 0;
+        waiting = new AtomicInteger(1);
+        back = 2;
+    }
+
+    /* METHODS */
+
+    /**
+     * publish: Hands the filled back snapshot to the drawing thread and takes an
+     * unused one to fill next. Called by the simulation thread.
+     */
+    public void publish() {
+        back = waiting.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * acquire: Takes the newest published snapshot, or keeps the current one if
+     * nothing new has been published. Called by the drawing thread; the snapshot
+     * stays unchanged until the next call.
+     *
+     * @return the snapshot to draw
+     */
+    public RenderSnapshot acquire() {
+        if ((waiting.get() & FRESH) != 0) {
+            front = waiting.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+
+}
@@ -0,0 +1,503 @@
+/**
+ File Name: RenderSnapshot.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class stores what is needed to draw one step of the simulation: the shape, position and colour of
+ each body and the position, size, colour and opacity of each particle. The simulation fills a snapshot at the end of
+ a step and hands it to the drawing code through a RenderBuffer, so drawing never reads the bodies or particles while
+ they are being changed. A snapshot is not changed while it is being drawn; its arrays are reused for a later step
+ once the drawing code has moved on to a newer snapshot.
+
+ The snapshot also stores the view of the camera. Bodies and particles outside the view are left out as they are added,
+ so the cost of drawing depends on what is visible rather than on how many bodies there are. Bodies smaller on the
+ screen than the level of detail threshold are not stored one by one; instead the number of them over each pixel is
+ counted, so they can be drawn as a density map whose cost depends on the size of the screen.
+ */
+
+import java.awt.Color;
+import java.util.Arrays;
+
+public class RenderSnapshot {
+
+    /* FIELDS */
+    private long step; // instance field: the step this snapshot was taken at
+    private double zoom; // instance field: screen pixels per world unit
+    private double offsetX; // instance field: screen x coordinate of world x = 0
+    private double offsetY; // instance field: screen y coordinate of world y = 0
+    private double viewMinX; // instance field: smallest world x coordinate in view
+    private double viewMaxX; // instance field: largest world x coordinate in view
+    private double viewMinY; // instance field: smallest world y coordinate in view
+    private double viewMaxY; // instance field: largest world y coordinate in view
+    private int culledCount; // instance field: number of bodies and particles left out because they are not in view
+    private double lodThreshold; // instance field: bodies narrower than this many pixels are counted in the density
+    private int densityWidth; // instance field: width of the density map, the width of the screen area
+    private int densityHeight; // instance field: height of the density map, the height of the screen area
+    private int[] density; // instance field: number of small bodies over each pixel, row by row
+    private int densityTotal; // instance field: number of bodies counted in the density map
+    private int densityMax; // instance field: largest number of bodies over one pixel
+    private int bodyCount; // instance field: number of bodies
+    private boolean[] polygon; // instance field: whether each body is a polygon rather than a circle
+    private double[] bodyX; // instance field: x coordinate of the centre of each body
+    private double[] bodyY; // instance field: y coordinate of the centre of each body
+    private double[] bodyRadius; // instance field: radius of each circle
+    private Color[] bodyColor; // instance field: colour of each body
+    private int[] vertexStart; // instance field: index of the first vertex of each polygon
+    private int[] vertexCount; // instance field: number of vertices of each polygon
+    private int vertexTotal; // instance field: number of vertices of all polygons
+    private double[] vertexX; // instance field: x coordinate of each vertex, in world space
+    private double[] vertexY; // instance field: y coordinate of each vertex, in world space
+    private int particleCount; // instance field: number of particles
+    private double[] particleX; // instance field: x coordinate of each particle
+    private double[] particleY; // instance field: y coordinate of each particle
+    private double[] particleRadius; // instance field: radius of each particle
+    private double[] particleAlpha; // instance field: opacity of each particle
+    private int[] particleColor; // instance field: RGB colour of each particle
+
+    /* ACCESSORS */
+
+    /**
+     * @return the step this snapshot was taken at
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return screen pixels per world unit
+     */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * @return number of bodies and particles left out because they are not in
+     *         view
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * @return bodies narrower than this many pixels are counted in the density
+     *         map instead of being stored
+     */
+    public double getLodThreshold() {
+        return lodThreshold;
+    }
+
+    /**
+     * @return width of the density map
+     */
+    public int getDensityWidth() {
+        return densityWidth;
+    }
+
+    /**
+     * @return height of the density map
+     */
+    public int getDensityHeight() {
+        return densityHeight;
+    }
+
+    /**
+     * @param i the pixel, counted row by row
+     * @return number of small bodies over the pixel
+     */
+    public int getDensity(int i) {
+        return density[i];
+    }
+
+    /**
+     * @return number of bodies counted in the density map
+     */
+    public int getDensityTotal() {
+        return densityTotal;
+    }
+
+    /**
+     * @return largest number of bodies over one pixel
+     */
+    public int getDensityMax() {
+        return densityMax;
+    }
+
+    /**
+     * @return number of bodies
+     */
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    /**
+     * @param i the body
+     * @return whether the body is a polygon rather than a circle
+     */
+    public boolean isPolygon(int i) {
+        return polygon[i];
+    }
+
+    /**
+     * @param i the body
+     * @return x coordinate of the centre of the body
+     */
+    public double getBodyX(int i) {
+        return bodyX[i];
+    }
+
+    /**
+     * @param i the body
+     * @return y coordinate of the centre of the body
+     */
+    public double getBodyY(int i) {
+        return bodyY[i];
+    }
+
+    /**
+     * @param i the body
+     * @return radius of the body if it is a circle
+     */
+    public double getBodyRadius(int i) {
+        return bodyRadius[i];
+    }
+
+    /**
+     * @param i the body
+     * @return colour of the body
+     */
+    public Color getBodyColor(int i) {
+        return bodyColor[i];
+    }
+
+    /**
+     * @param i the body
+     * @return number of vertices of the body if it is a polygon
+     */
+    public int getVertexCount(int i) {
+        return vertexCount[i];
+    }
+
+    /**
+     * @param i the body
+     * @param j the vertex
+     * @return x coordinate of the vertex, in world space
+     */
+    public double getVertexX(int i, int j) {
+        return vertexX[vertexStart[i] + j];
+    }
+
+    /**
+     * @param i the body
+     * @param j the vertex
+     * @return y coordinate of the vertex, in world space
+     */
+    public double getVertexY(int i, int j) {
+        return vertexY[vertexStart[i] + j];
+    }
+
+    /**
+     * @return number of particles
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * @param i the particle
+     * @return x coordinate of the particle
+     */
+    public double getParticleX(int i) {
+        return particleX[i];
+    }
+
+    /**
+     * @param i the particle
+     * @return y coordinate of the particle
+     */
+    public double getParticleY(int i) {
+        return particleY[i];
+    }
+
+    /**
+     * @param i the particle
+     * @return radius of the particle
+     */
+    public double getParticleRadius(int i) {
+        return particleRadius[i];
+    }
+
+    /**
+     * @param i the particle
+     * @return opacity of the particle, from 0 to 1
+     */
+    public double getParticleAlpha(int i) {
+        return particleAlpha[i];
+    }
+
+    /**
+     * @param i the particle
+     * @return RGB colour of the particle
+     */
+    public int getParticleColor(int i) {
+        return particleColor[i];
+    }
+
+    /* MUTATORS */
+
+    /**
+     * setView: Sets the view of the camera. Bodies and particles added afterwards
+     * are left out if they are outside it.
+     *
+     * @param centerX    x coordinate of the world point at the centre of the
+     *                   screen
+     * @param centerY    y coordinate of the world point at the centre of the
+     *                   screen
+     * @param zoom       screen pixels per world unit
+     * @param viewWidth  width of the screen area
+     * @param viewHeight height of the screen area
+     */
+    public void setView(double centerX, double centerY, double zoom, int viewWidth, int viewHeight) {
+        this.zoom = zoom;
+        this.offsetX = viewWidth / 2.0 - centerX * zoom;
+        this.offsetY = viewHeight / 2.0 - centerY * zoom;
+        this.viewMinX = centerX - viewWidth / 2.0 / zoom;
+        this.viewMaxX = centerX + viewWidth / 2.0 / zoom;
+        this.viewMinY = centerY - viewHeight / 2.0 / zoom;
+        this.viewMaxY = centerY + viewHeight / 2.0 / zoom;
+        this.densityWidth = viewWidth;
+        this.densityHeight = viewHeight;
+    }
+
+    /**
+     * @param lodThreshold bodies narrower than this many pixels on the screen are
+     *                     counted in the density map instead of being stored, or
+     *                     0 to store every body
+     */
+    public void setLodThreshold(double lodThreshold) {
+        this.lodThreshold = lodThreshold;
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * RenderSnapshot: Creates an empty snapshot
+     */
+    public RenderSnapshot() {
+        polygon = new boolean[16];
+        bodyX = new double[16];
+        bodyY = new double[16];
+        bodyRadius = new double[16];
+        bodyColor = new Color[16];
+        vertexStart = new int[16];
+        vertexCount = new int[16];
+        vertexX = new double[64];
+        vertexY = new double[64];
+        particleX = new double[64];
+        particleY = new double[64];
+        particleRadius = new double[64];
+        particleAlpha = new double[64];
+        particleColor = new int[64];
+        clear(0);
+    }
+
+    /* METHODS */
+
+    /**
+     * toScreenX: Converts an x coordinate in the world to the screen
+     *
+     * @param worldX x coordinate in the world
+     * @return x coordinate on the screen
+     */
+    public double toScreenX(double worldX) {
+        return worldX * zoom + offsetX;
+    }
+
+    /**
+     * toScreenY: Converts a y coordinate in the world to the screen
+     *
+     * @param worldY y coordinate in the world
+     * @return y coordinate on the screen
+     */
+    public double toScreenY(double worldY) {
+        return worldY * zoom + offsetY;
+    }
+
+    /**
+     * inView: Checks whether a box in the world overlaps the view
+     *
+     * @param minX smallest x coordinate of the box
+     * @param maxX largest x coordinate of the box
+     * @param minY smallest y coordinate of the box
+     * @param maxY largest y coordinate of the box
+     * @return whether the box overlaps the view
+     */
+    private boolean inView(double minX, double maxX, double minY, double maxY) {
+        if (maxX < viewMinX || minX > viewMaxX || maxY < viewMinY || minY > viewMaxY) {
+            culledCount++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * clear: Empties the snapshot so it can be filled for a new step. The view
+     * is reset to show the whole world unscaled until setView is called.
+     *
+     * @param step the step the snapshot is being taken at
+     */
+    public void clear(long step) {
+        this.step = step;
+        zoom = 1;
+        offsetX = 0;
+        offsetY = 0;
+        viewMinX = Double.NEGATIVE_INFINITY;
+        viewMaxX = Double.POSITIVE_INFINITY;
+        viewMinY = Double.NEGATIVE_INFINITY;
+        viewMaxY = Double.POSITIVE_INFINITY;
+        culledCount = 0;
+        lodThreshold = 0;
+        if (densityTotal > 0) {
+            Arrays.fill(density, 0);
+            densityTotal = 0;
+            densityMax = 0;
+        }
+        Arrays.fill(bodyColor, 0, bodyCount, null);
+        bodyCount = 0;
+        vertexTotal = 0;
+        particleCount = 0;
+    }
+
+    /**
+     * addCircle: Adds a circle body if it is in view
+     *
+     * @param x      x coordinate of the centre
+     * @param y      y coordinate of the centre
+     * @param radius the radius
+     * @param color  the colour
+     */
+    public void addCircle(double x, double y, double radius, Color color) {
+        if (!inView(x - radius, x + radius, y - radius, y + radius)) {
+            return;
+        }
+        if (radius * 2 * zoom < lodThreshold) {
+            addDensity(x, y);
+            return;
+        }
+        int i = nextBody();
+        polygon[i] = false;
+        bodyX[i] = x;
+        bodyY[i] = y;
+        bodyRadius[i] = radius;
+        bodyColor[i] = color;
+        vertexStart[i] = vertexTotal;
+        vertexCount[i] = 0;
+    }
+
+    /**
+     * addPolygon: Adds a polygon body if it is in view
+     *
+     * @param x        x coordinate of the centre
+     * @param y        y coordinate of the centre
+     * @param vertices the vertices, in world space
+     * @param bounds   the bounds of the vertices, as [min x, max x, min y, max
+     *                 y]
+     * @param color    the colour
+     */
+    public void addPolygon(double x, double y, Vec[] vertices, double[] bounds, Color color) {
+        if (!inView(bounds[0], bounds[1], bounds[2], bounds[3])) {
+            return;
+        }
+        if (Math.max(bounds[1] - bounds[0], bounds[3] - bounds[2]) * zoom < lodThreshold) {
+            addDensity(x, y);
+            return;
+        }
+        int i = nextBody();
+        polygon[i] = true;
+        bodyX[i] = x;
+        bodyY[i] = y;
+        bodyRadius[i] = 0;
+        bodyColor[i] = color;
+        if (vertexTotal + vertices.length > vertexX.length) {
+            int n = Math.max(vertexX.length * 2, vertexTotal + vertices.length);
+            vertexX = Arrays.copyOf(vertexX, n);
+            vertexY = Arrays.copyOf(vertexY, n);
+        }
+        vertexStart[i] = vertexTotal;
+        vertexCount[i] = vertices.length;
+        for (int j = 0; j < vertices.length; j++) {
+            vertexX[vertexTotal] = vertices[j].getX();
+            vertexY[vertexTotal] = vertices[j].getY();
+            vertexTotal++;
+        }
+    }
+
+    /**
+     * addParticle: Adds a particle if it is in view
+     *
+     * @param x      x coordinate
+     * @param y      y coordinate
+     * @param radius the radius
+     * @param alpha  the opacity, from 0 to 1
+     * @param rgb    the RGB colour
+     */
+    public void addParticle(double x, double y, double radius, double alpha, int rgb) {
+        if (!inView(x - radius, x + radius, y - radius, y + radius)) {
+            return;
+        }
+        if (particleCount == particleX.length) {
+            int n = particleCount * 2;
+            particleX = Arrays.copyOf(particleX, n);
+            particleY = Arrays.copyOf(particleY, n);
+            particleRadius = Arrays.copyOf(particleRadius, n);
+            particleAlpha = Arrays.copyOf(particleAlpha, n);
+            particleColor = Arrays.copyOf(particleColor, n);
+        }
+        particleX[particleCount] = x;
+        particleY[particleCount] = y;
+        particleRadius[particleCount] = radius;
+        particleAlpha[particleCount] = alpha;
+        particleColor[particleCount] = rgb;
+        particleCount++;
+    }
+
+    /**
+     * addDensity: Counts a small body over the pixel its centre is on
+     *
+     * @param x x coordinate of the centre
+     * @param y y coordinate of the centre
+     */
+    private void addDensity(double x, double y) {
+        int px = (int) Math.floor(toScreenX(x));
+        int py = (int) Math.floor(toScreenY(y));
+        if (px < 0 || py < 0 || px >= densityWidth || py >= densityHeight) {
+            return;
+        }
+        if (density == null || density.length != densityWidth * densityHeight) {
+            density = new int[densityWidth * densityHeight];
+        }
+        int count = ++density[py * densityWidth + px];
+        densityTotal++;
+        if (count > densityMax) {
+            densityMax = count;
+        }
+    }
+
+    /**
+     * nextBody: Makes room for another body
+     *
+     * @return the index of the new body
+     */
+    private int nextBody() {
+        if (bodyCount == bodyX.length) {
+            int n = bodyCount * 2;
+            polygon = Arrays.copyOf(polygon, n);
+            bodyX = Arrays.copyOf(bodyX, n);
+            bodyY = Arrays.copyOf(bodyY, n);
+            bodyRadius = Arrays.copyOf(bodyRadius, n);
+            bodyColor = Arrays.copyOf(bodyColor, n);
+            vertexStart = Arrays.copyOf(vertexStart, n);
+            vertexCount = Arrays.copyOf(vertexCount, n);
+        }
+        return bodyCount++;
+    }
+
+}
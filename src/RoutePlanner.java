@@ -0,0 +1,446 @@
+/**
+ * File Name: RoutePlanner.java
+ * @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ * Date: January 17, 2022
+ * Description: This class finds the shortest path between two planets, where each jump between planets must be
+ * shorter than a maximum distance. The planets are kept in a grid of cells as wide as the maximum distance, so the
+ * planets in reach of a planet are found by looking in the cells around it. The path is found with A* search, using
+ * the straight line distance to the destination as the estimate.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class RoutePlanner {
+
+    /* FIELDS */
+
+    private int numPlanets; // instance field: the number of planets
+    private Planet[] planets; // instance field: the planets
+    private long[] cells; // instance field: the grid cell each planet is stored in
+    private HashMap<Planet, Integer> slots; // instance field: where each planet is in planets
+
+    private HashMap<Long, Cell> grid; // instance field: the planets in each grid cell
+    private double cellSize; // instance field: the width of the grid cells, or 0 before the grid is built
+    private long step; // instance field: the number of steps the bodies have moved
+    private long gridStep; // instance field: the step the grid was last updated on
+
+    private double[] costs; // instance field: the shortest distance found to each planet in the current search
+    private int[] previous; // instance field: the planet before each planet on the shortest path found
+    private int[] searchIds; // instance field: the search each planet was last reached in
+    private boolean[] closed; // instance field: whether the shortest distance to each planet is final
+    private int searchId; // instance field: the number of the current search
+
+    private int heapSize; // instance field: the number of entries in the open list
+    private int[] heapNodes; // instance field: the planets in the open list, as a binary heap
+    private double[] heapKeys; // instance field: the estimated total distance of each open list entry
+
+    /* CONSTRUCTORS */
+
+    /**
+     * RoutePlanner: Constructor that creates a route planner with no planets
+     */
+    public RoutePlanner() {
+        planets = new Planet[16];
+        cells = new long[16];
+        slots = new HashMap<Planet, Integer>();
+        grid = new HashMap<Long, Cell>();
+        costs = new double[16];
+        previous = new int[16];
+        searchIds = new int[16];
+        closed = new boolean[16];
+        heapNodes = new int[16];
+        heapKeys = new double[16];
+    }
+
+    /* METHODS */
+
+    /**
+     * add: Adds a planet to the planner
+     *
+     * @param planet the planet to add
+     */
+    public synchronized void add(Planet planet) {
+        if (slots.containsKey(planet)) {
+            return;
+        }
+        if (numPlanets == planets.length) {
+            int capacity = numPlanets * 2;
+            planets = Arrays.copyOf(planets, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            searchIds = Arrays.copyOf(searchIds, capacity);
+            closed = Arrays.copyOf(closed, capacity);
+        }
+        int slot = numPlanets++;
+        planets[slot] = planet;
+        searchIds[slot] = 0;
+        slots.put(planet, slot);
+        if (cellSize > 0) {
+            cells[slot] = cellOf(planet);
+            cellAt(cells[slot]).add(slot);
+        }
+    }
+
+    /**
+     * remove: Removes a planet from the planner
+     *
+     * @param planet the planet to remove
+     */
+    public synchronized void remove(Planet planet) {
+        Integer slot = slots.remove(planet);
+        if (slot == null) {
+            return;
+        }
+        if (cellSize > 0) {
+            removeFromCell(cells[slot], slot);
+        }
+
+        // fill the gap with the last planet
+        int last = --numPlanets;
+        if (slot != last) {
+            planets[slot] = planets[last];
+            cells[slot] = cells[last];
+            searchIds[slot] = 0;
+            slots.put(planets[slot], slot);
+            if (cellSize > 0) {
+                Cell cell = grid.get(cells[slot]);
+                cell.replace(last, slot);
+            }
+        }
+        planets[last] = null;
+    }
+
+    /**
+     * rebuild: Replaces the planets in the planner with the planets in a list of
+     * bodies
+     *
+     * @param bodies the bodies
+     */
+    public synchronized void rebuild(ArrayList<Body> bodies) {
+        Arrays.fill(planets, 0, numPlanets, null);
+        numPlanets = 0;
+        slots.clear();
+        grid.clear();
+        cellSize = 0;
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i) instanceof Planet) {
+                add((Planet) bodies.get(i));
+            }
+        }
+    }
+
+    /**
+     * step: Records that the bodies have moved, so the grid is updated before the
+     * next search
+     */
+    public synchronized void step() {
+        step++;
+    }
+
+    /**
+     * findPath: Finds the shortest path from one planet to another, where every
+     * jump is shorter than a maximum distance
+     *
+     * @param start       the planet to start from
+     * @param destination the planet to reach
+     * @param maxDistance the longest jump allowed, exclusive
+     * @return the shortest path, or null if the destination cannot be reached
+     */
+    public synchronized PlanetPath findPath(Planet start, Planet destination, double maxDistance) {
+        Integer from = slots.get(start);
+        Integer to = slots.get(destination);
+        if (from == null || to == null || !(maxDistance > 0)) {
+            return null;
+        }
+        updateGrid(maxDistance);
+
+        double goalX = destination.getPos().getX();
+        double goalY = destination.getPos().getY();
+        double maxDistanceSq = maxDistance * maxDistance;
+        int reach = (int) Math.ceil(maxDistance / cellSize);
+
+        // start a new search without clearing the arrays
+        searchId++;
+        heapSize = 0;
+        reachPlanet(from, 0, -1, goalX, goalY);
+
+        while (heapSize > 0) {
+            int node = popHeap();
+            if (closed[node]) {
+                continue;
+            }
+            closed[node] = true;
+            if (node == to) {
+                return buildPath(to);
+            }
+
+            // look for unfinished planets in reach in the cells around this planet
+            Planet planet = planets[node];
+            double x = planet.getPos().getX();
+            double y = planet.getPos().getY();
+            int cx = (int) (cells[node] >> 32);
+            int cy = (int) cells[node];
+            for (int i = cx - reach; i <= cx + reach; i++) {
+                for (int j = cy - reach; j <= cy + reach; j++) {
+                    Cell cell = grid.get(cellKey(i, j));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int k = 0; k < cell.size; k++) {
+                        int next = cell.slots[k];
+                        if (next == node || (searchIds[next] == searchId && closed[next])
+                                || planets[next].isDestroyed()) {
+                            continue;
+                        }
+                        double dx = planets[next].getPos().getX() - x;
+                        double dy = planets[next].getPos().getY() - y;
+                        double distanceSq = dx * dx + dy * dy;
+                        if (distanceSq < maxDistanceSq) {
+                            reachPlanet(next, costs[node] + Math.sqrt(distanceSq), node, goalX, goalY);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * reachPlanet: Records a path to a planet if it is shorter than the shortest
+     * path to it found so far, and adds the planet to the open list
+     *
+     * @param node  the planet
+     * @param cost  the length of the path to the planet
+     * @param from  the planet before it on the path, or -1
+     * @param goalX the x coordinate of the destination
+     * @param goalY the y coordinate of the destination
+     */
+    private void reachPlanet(int node, double cost, int from, double goalX, double goalY) {
+        if (searchIds[node] != searchId) {
+            searchIds[node] = searchId;
+            closed[node] = false;
+        } else if (cost >= costs[node]) {
+            return;
+        }
+        costs[node] = cost;
+        previous[node] = from;
+        double dx = goalX - planets[node].getPos().getX();
+        double dy = goalY - planets[node].getPos().getY();
+        pushHeap(node, cost + Math.sqrt(dx * dx + dy * dy));
+    }
+
+    /**
+     * buildPath: Follows the planets back from the destination to the start
+     *
+     * @param node the destination
+     * @return the path
+     */
+    private PlanetPath buildPath(int node) {
+        ArrayList<Planet> path = new ArrayList<Planet>();
+        for (int i = node; i >= 0; i = previous[i]) {
+            path.add(planets[i]);
+        }
+        ArrayList<Planet> ordered = new ArrayList<Planet>(path.size());
+        for (int i = path.size() - 1; i >= 0; i--) {
+            ordered.add(path.get(i));
+        }
+        return new PlanetPath(ordered);
+    }
+
+    /**
+     * updateGrid: Moves the planets that have left their cells since the last
+     * step. The grid is built again only when the maximum distance is much
+     * smaller or larger than the cells.
+     *
+     * @param maxDistance the longest jump allowed
+     */
+    private void updateGrid(double maxDistance) {
+        if (cellSize == 0 || maxDistance < cellSize / 2 || maxDistance > cellSize * 4) {
+            cellSize = maxDistance;
+            grid.clear();
+            for (int i = 0; i < numPlanets; i++) {
+                cells[i] = cellOf(planets[i]);
+                cellAt(cells[i]).add(i);
+            }
+            gridStep = step;
+        } else if (gridStep != step) {
+            for (int i = 0; i < numPlanets; i++) {
+                long cell = cellOf(planets[i]);
+                if (cell != cells[i]) {
+                    removeFromCell(cells[i], i);
+                    cells[i] = cell;
+                    cellAt(cell).add(i);
+                }
+            }
+            gridStep = step;
+        }
+    }
+
+    /**
+     * cellOf: Finds the grid cell a planet is in
+     *
+     * @param planet the planet
+     * @return the key of the cell
+     */
+    private long cellOf(Planet planet) {
+        return cellKey((int) Math.floor(planet.getPos().getX() / cellSize),
+                (int) Math.floor(planet.getPos().getY() / cellSize));
+    }
+
+    /**
+     * cellKey: Combines the coordinates of a grid cell into one key
+     *
+     * @param cx the column of the cell
+     * @param cy the row of the cell
+     * @return the key of the cell
+     */
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * cellAt: Retrieves a grid cell, creating it if needed
+     *
+     * @param key the key of the cell
+     * @return the cell
+     */
+    private Cell cellAt(long key) {
+        Cell cell = grid.get(key);
+        if (cell == null) {
+            cell = new Cell();
+            grid.put(key, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * removeFromCell: Removes a planet from a grid cell, and the cell from the grid
+     * if it is empty
+     *
+     * @param key  the key of the cell
+     * @param slot the planet
+     */
+    private void removeFromCell(long key, int slot) {
+        Cell cell = grid.get(key);
+        if (cell != null) {
+            cell.remove(slot);
+            if (cell.size == 0) {
+                grid.remove(key);
+            }
+        }
+    }
+
+    /**
+     * pushHeap: Adds a planet to the open list. A planet can be in the list more
+     * than once; the entries after the first are skipped when they come out.
+     *
+     * @param node the planet
+     * @param key  the estimated total distance through the planet
+     */
+    private void pushHeap(int node, double key) {
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapNodes[i] = heapNodes[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+    }
+
+    /**
+     * popHeap: Takes the planet with the smallest estimated total distance out of
+     * the open list
+     *
+     * @return the planet
+     */
+    private int popHeap() {
+        int top = heapNodes[0];
+        int node = heapNodes[--heapSize];
+        double key = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+        return top;
+    }
+
+    /**
+     * Cell: This class stores the planets in one grid cell
+     */
+    private static class Cell {
+
+        /* FIELDS */
+        private int[] slots = new int[4]; // instance field: the planets in the cell
+        private int size; // instance field: the number of planets in the cell
+
+        /* METHODS */
+
+        /**
+         * add: Adds a planet to the cell
+         *
+         * @param slot the planet
+         */
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        /**
+         * remove: Removes a planet from the cell
+         *
+         * @param slot the planet
+         */
+        private void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+
+        /**
+         * replace: Changes the number of a planet in the cell
+         *
+         * @param oldSlot the old number of the planet
+         * @param newSlot the new number of the planet
+         */
+        private void replace(int oldSlot, int newSlot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == oldSlot) {
+                    slots[i] = newSlot;
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -8,6 +8,9 @@
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.util.ArrayList;
 
 import javax.swing.*;
@@ -28,6 +31,11 @@ public class Space extends JPanel implements Runnable, ActionListener {
     private FileManager fileManager;
     private UIManager buttonManager;
     private ParticleManager particleManager;
+    private RenderBuffer renderBuffer; // passes snapshots of each step from the simulator to the painter
+    private long step; // number of snapshots taken
+    private ActiveRenderer activeRenderer; // draws the simulation on its own thread, or null if Swing paints it
+    private Camera camera; // the view of the world shown on the screen
+    private static final double ZOOM_STEP = 1.1; // zoom factor for one notch of the mouse wheel
 
     /* ACCESSORS & MUTATORS */
 
@@ -38,6 +46,46 @@ public class Space extends JPanel implements Runnable, ActionListener {
         return running;
     }
 
+    /**
+     * @return whether the simulation is drawn by the active renderer rather than
+     *         by Swing painting
+     */
+    public boolean isActiveRendering() {
+        return activeRenderer != null && activeRenderer.isRunning();
+    }
+
+    /**
+     * @return the camera, which can be panned, zoomed or set to follow a body
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * getPointerWorldPos:
+     * Finds where the mouse pointer is in the world, going from the screen to this panel and then through the camera
+     *
+     * @return the position in the world under the pointer, or the center of the view if there is no pointer
+     */
+    public Vec getPointerWorldPos() {
+        PointerInfo pointer = MouseInfo.getPointerInfo();
+        Point point;
+        if (pointer == null) {
+            point = new Point(getWidth() / 2, getHeight() / 2);
+        } else {
+            point = pointer.getLocation();
+            SwingUtilities.convertPointFromScreen(point, this);
+        }
+        return new Vec(camera.toWorldX(point.getX()), camera.toWorldY(point.getY()));
+    }
+
+    /**
+     * @return the active renderer, or null if Swing paints the simulation
+     */
+    public ActiveRenderer getActiveRenderer() {
+        return activeRenderer;
+    }
+
     /**
      * @return associated file manager
      */
@@ -94,6 +142,13 @@ public class Space extends JPanel implements Runnable, ActionListener {
         return bodyManager;
     }
 
+    /**
+     * @return particle manager to update and draw particles
+     */
+    public ParticleManager getParticleManager() {
+        return particleManager;
+    }
+
     /**
      * @return simulator
      */
@@ -140,9 +195,21 @@ public class Space extends JPanel implements Runnable, ActionListener {
 
     /**
      * Space:
-     * Constructor to create Space simulation
+     * Constructor to create Space simulation, painted by Swing. Use Space(true) to
+     * draw it with an active renderer instead.
      */
     public Space() {
+        this(false);
+    }
+
+    /**
+     * Space:
+     * Constructor to create Space simulation
+     *
+     * @param activeRendering whether to draw the simulation on its own thread with a buffer strategy, falling back
+     *                        to Swing painting if that is not possible
+     */
+    public Space(boolean activeRendering) {
         running = false;
         screenWidth = (int) screenSize.getWidth();
         screenHeight = (int) screenSize.getHeight();
@@ -152,8 +219,48 @@ public class Space extends JPanel implements Runnable, ActionListener {
 
         particleManager = new ParticleManager();
         bodyManager = new BodyManager(particleManager);
+        renderBuffer = new RenderBuffer();
+        camera = new Camera(screenWidth, screenHeight);
         fileManager = new FileManager(new String[] {"file 1"}, bodyManager);
         buttonManager = new UIManager(this, bodyManager, fileManager);
+
+        if (activeRendering && !GraphicsEnvironment.isHeadless()) {
+            // added last so it sits behind the buttons and text fields
+            activeRenderer = new ActiveRenderer(bodyManager, particleManager, renderBuffer);
+            activeRenderer.setBounds(0, 0, screenWidth, screenHeight);
+            this.add(activeRenderer);
+        }
+
+        // drag to pan and use the mouse wheel to zoom about the pointer
+        MouseAdapter cameraControls = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (last != null) {
+                    camera.pan(e.getX() - last.getX(), e.getY() - last.getY());
+                }
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                camera.zoomAt(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        this.addMouseListener(cameraControls);
+        this.addMouseMotionListener(cameraControls);
+        this.addMouseWheelListener(cameraControls);
+        if (activeRenderer != null) {
+            activeRenderer.addMouseListener(cameraControls);
+            activeRenderer.addMouseMotionListener(cameraControls);
+            activeRenderer.addMouseWheelListener(cameraControls);
+        }
     }
 
     /**
@@ -179,8 +286,12 @@ public class Space extends JPanel implements Runnable, ActionListener {
         super.paintComponent(g);
 
         //TODO: move the drawing to another class if possible to organize it
-        bodyManager.drawBodies(g);
-        particleManager.drawParticles(g);
+        if (!isActiveRendering()) {
+            // only the latest snapshot is read, so painting never waits for or races the simulator
+            RenderSnapshot snapshot = renderBuffer.acquire();
+            bodyManager.drawBodies(g, snapshot);
+            particleManager.drawParticles(g, snapshot);
+        }
     }
 
     /**
@@ -196,6 +307,20 @@ public class Space extends JPanel implements Runnable, ActionListener {
             bodyManager.updateBodies();
             particleManager.updateParticles();
         }
+        publishSnapshot();
+    }
+
+    /**
+     * publishSnapshot:
+     * Copies what is needed to draw the bodies and particles into a render snapshot and hands it to the painter
+     */
+    private void publishSnapshot() {
+        RenderSnapshot snapshot = renderBuffer.getBack();
+        snapshot.clear(step++);
+        camera.applyTo(snapshot);
+        bodyManager.addToSnapshot(snapshot);
+        particleManager.addToSnapshot(snapshot);
+        renderBuffer.publish();
     }
 
     /**
@@ -212,7 +337,9 @@ public class Space extends JPanel implements Runnable, ActionListener {
         while (true) {
 
             loop();
-            repaint();
+            if (!isActiveRendering()) {
+                repaint();
+            }
 
             timeDiff = System.currentTimeMillis() - beforeTime;
             sleep = DELAY - timeDiff;
@@ -255,6 +382,24 @@ public class Space extends JPanel implements Runnable, ActionListener {
      */
     public void clearSim() {
         bodyManager.setBodies(new ArrayList<Body>());
-        bodyManager.setNumBodies(0);
+    }
+
+    /**
+     * renderStats:
+     * Lists how long drawing the last frame took, and the average over recent frames where it is kept
+     *
+     * @return the render times, in milliseconds
+     */
+    public String renderStats() {
+        ParticleRenderer particleRenderer = particleManager.getRenderer();
+        String stats = "\n\nRender Times:";
+        if (activeRenderer != null) {
+            stats += String.format("\nFrame: %.2f ms (average %.2f ms)", activeRenderer.getLastFrameNanos() / 1e6,
+                    activeRenderer.getAverageFrameNanos() / 1e6);
+        }
+        stats += String.format("\nParticles: %.2f ms (average %.2f ms)", particleRenderer.getLastFrameNanos() / 1e6,
+                particleRenderer.getAverageFrameNanos() / 1e6);
+        stats += String.format("\nDensity Map: %.2f ms", bodyManager.getDensityRenderer().getLastFrameNanos() / 1e6);
+        return stats;
     }
 }
@@ -13,18 +13,34 @@ public class SpaceRunner extends JFrame{
      * main:
      * to utilize SpaceRunner
      *
-     * @param args
+     * @param args pass --active to draw the simulation with an active renderer instead of Swing painting
      */
     public static void main(String[] args) {
-        new SpaceRunner();
+        boolean activeRendering = false;
+        for (String arg : args) {
+            if (arg.equals("--active")) {
+                activeRendering = true;
+            }
+        }
+        new SpaceRunner(activeRendering);
     }
 
     /**
      * SpaceRunner:
-     * Creates a new SpaceRunner to run simulation
+     * Creates a new SpaceRunner to run simulation, painted by Swing
      */
     public SpaceRunner() {
-        this.add(new Space());
+        this(false);
+    }
+
+    /**
+     * SpaceRunner:
+     * Creates a new SpaceRunner to run simulation
+     *
+     * @param activeRendering whether to draw the simulation with an active renderer instead of Swing painting
+     */
+    public SpaceRunner(boolean activeRendering) {
+        this.add(new Space(activeRendering));
         this.setTitle("Space Simulation");
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.setResizable(true);
@@ -0,0 +1,230 @@
+/**
+ File Name: SpriteCache.java
+ @author: Samuel Ho, Susie Choi, Shirley Zhang, Tony Li
+ Date: January 17, 2022
+ Description: This class draws circles by copying images of them that were drawn once and kept, instead of filling an
+ oval every frame. An image is kept for each colour and size on the screen, which already includes the zoom of the
+ camera. The least recently used images are thrown away once the images take more memory than allowed. The number of
+ circles drawn from a kept image is counted so the limits can be tuned.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+public class SpriteCache {
+
+    /* FIELDS */
+    private static final long DEFAULT_MAX_BYTES = 16L << 20; // class field: memory allowed for images by default
+    private static final int MAX_SPRITE_SIZE = 256; // class field: circles wider than this are filled directly
+    private LinkedHashMap<Long, BufferedImage> sprites; // instance field: the images, least recently used first
+    private long maxBytes; // instance field: memory allowed for images
+    private long usedBytes; // instance field: memory taken by images
+    private boolean antialiased; // instance field: whether the edges of the images are smoothed
+    private long hits; // instance field: circles drawn from a kept image
+    private long misses; // instance field: circles whose image had to be drawn first
+    private long evictions; // instance field: images thrown away to stay within the memory allowed
+
+    /* ACCESSORS */
+
+    /**
+     * @return memory allowed for images, in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return memory taken by images, in bytes
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return number of images kept
+     */
+    public int getSize() {
+        return sprites.size();
+    }
+
+    /**
+     * @return whether the edges of the images are smoothed
+     */
+    public boolean isAntialiased() {
+        return antialiased;
+    }
+
+    /**
+     * @return circles drawn from a kept image
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return circles whose image had to be drawn first
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return images thrown away to stay within the memory allowed
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return fraction of circles drawn from a kept image, or 0 if none have been
+     *         drawn
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /* MUTATORS */
+
+    /**
+     * @param maxBytes memory allowed for images, in bytes
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * @param antialiased whether the edges of the images are smoothed. The kept
+     *                    images are thrown away if this changes.
+     */
+    public void setAntialiased(boolean antialiased) {
+        if (this.antialiased != antialiased) {
+            this.antialiased = antialiased;
+            clear();
+        }
+    }
+
+    /* CONSTRUCTORS */
+
+    /**
+     * SpriteCache: Creates an empty cache with the default memory allowed
+     */
+    public SpriteCache() {
+        this.sprites = new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true);
+        this.maxBytes = DEFAULT_MAX_BYTES;
+    }
+
+    /* METHODS */
+
+    /**
+     * drawCircle: Draws a filled circle, covering the same pixels as fillOval
+     * with the same arguments
+     *
+     * @param g        Graphics
+     * @param color    the colour
+     * @param x        x coordinate of the left of the circle on the screen
+     * @param y        y coordinate of the top of the circle on the screen
+     * @param diameter the width of the circle on the screen
+     */
+    public void drawCircle(Graphics g, Color color, int x, int y, int diameter) {
+        if (diameter <= 0) {
+            return;
+        }
+        if (diameter > MAX_SPRITE_SIZE) {
+            g.setColor(color);
+            g.fillOval(x, y, diameter, diameter);
+            return;
+        }
+        Long key = ((long) color.getRGB() << 32) | diameter;
+        BufferedImage sprite = sprites.get(key);
+        if (sprite != null) {
+            hits++;
+        } else {
+            misses++;
+            sprite = createSprite(g, color, diameter);
+            sprites.put(key, sprite);
+            usedBytes += bytesOf(sprite);
+            evict();
+        }
+        g.drawImage(sprite, x, y, null);
+    }
+
+    /**
+     * clear: Throws away every kept image. The counts are kept.
+     */
+    public void clear() {
+        sprites.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * resetStats: Sets the hit, miss and eviction counts back to zero
+     */
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * createSprite: Draws a circle into a new image suited to the screen being
+     * drawn on
+     *
+     * @param g        Graphics of the screen
+     * @param color    the colour
+     * @param diameter the width of the circle
+     * @return the image
+     */
+    private BufferedImage createSprite(Graphics g, Color color, int diameter) {
+        // one pixel larger, since fillOval can touch the pixel past its width
+        int size = diameter + 1;
+        BufferedImage sprite;
+        if (g instanceof Graphics2D) {
+            sprite = ((Graphics2D) g).getDeviceConfiguration().createCompatibleImage(size, size,
+                    Transparency.TRANSLUCENT);
+        } else {
+            sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        Graphics2D sg = sprite.createGraphics();
+        try {
+            if (antialiased) {
+                sg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            }
+            sg.setColor(color);
+            sg.fillOval(0, 0, diameter, diameter);
+        } finally {
+            sg.dispose();
+        }
+        return sprite;
+    }
+
+    /**
+     * evict: Throws away the least recently used images until the images fit in
+     * the memory allowed
+     */
+    private void evict() {
+        Iterator<BufferedImage> it = sprites.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= bytesOf(it.next());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * bytesOf: Estimates the memory taken by an image
+     *
+     * @param sprite the image
+     * @return the memory taken, in bytes
+     */
+    private static long bytesOf(BufferedImage sprite) {
+        return 4L * sprite.getWidth() * sprite.getHeight();
+    }
+
+}
@@ -6,13 +6,12 @@
  */
 
 import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.MouseInfo;
 
 public class Star extends Circle {
 
     /* FIELDS */
     private static final int MAX_PLANETS = 20; // class field (constant): maximum number of Planets
+    private static final Color COLOR = new Color(255, 204, 0); // class field (constant): colour the Star is drawn with
     private int numPlanets; // instance field: number of Planets orbiting this Star
     protected Planet[] planets = new Planet[MAX_PLANETS]; // instance field: array of Planets orbiting this Star
 
@@ -76,15 +75,13 @@ public class Star extends Circle {
      * Star: Constructor that creates a new Star object with necessary given fields
      *
      * @param name
+     * @param pos    the position in the world
      * @param mass
      * @param age
      * @param radius
      */
-    public Star(String name, double mass, int age, double radius) {
-        super(name,
-                new Vec(MouseInfo.getPointerInfo().getLocation().getX(),
-                        MouseInfo.getPointerInfo().getLocation().getY()),
-                mass, false, true, new Vec(0, 0), age, 0, 0, radius);
+    public Star(String name, Vec pos, double mass, int age, double radius) {
+        super(name, pos, mass, false, true, new Vec(0, 0), age, 0, 0, radius);
         numPlanets = 0;
     }
 
@@ -101,13 +98,13 @@ public class Star extends Circle {
     }
 
     /**
-     * draw: Draws Star simulation with given Graphics
+     * getColor: Retrieves the colour the Star is drawn with
      *
-     * @param g Graphics
+     * @return the colour
      */
-    public void draw(Graphics g) { // temp draw method
-        g.setColor(new Color(255,204,0));
-        g.fillOval((int) (pos.getX() - radius), (int) (pos.getY() - radius), (int) radius * 2, (int) radius * 2);
+    @Override
+    public Color getColor() {
+        return COLOR;
     }
 
     /**
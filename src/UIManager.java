@@ -387,6 +387,7 @@ public class UIManager {
                 break;
             case "displayStats":
                 display.append(bodyManager.displayStats());
+                display.append(space.renderStats());
                 break;
             case "listBodies":
                 display.append(bodyManager.listBodies());
@@ -426,21 +427,22 @@ public class UIManager {
                     String planet1 = textfields.get("shortestPathPlanet1").getText();
                     String planet2 = textfields.get("shortestPathPlanet2").getText();
                     double length = Double.parseDouble(textfields.get("shortestPathLength").getText());
-                    if (bodyManager.findShortestPath(planet1, planet2, length) != null) {
-                        display.append(bodyManager.findShortestPath(planet1, planet2, length) + "");
+                    PlanetPath path = bodyManager.findShortestPath(planet1, planet2, length);
+                    if (path != null) {
+                        display.append(path + "");
                     } else {
                         display.append("\n\nIt is not possible to make this journey without surpassing distance " + length);
                     }
                 } catch (NumberFormatException nfe) {
                     display.append("\n\nPlease enter valid info into text fields");
                 }
-                bodyManager.resetPlanetVisits();
                 break;
             case "olderThan":
                 try {
                     int inAge = Integer.parseInt(textfields.get("olderThan").getText());
-                    display.append("\n\nCelestial Bodies older than " + inAge + ":\n" + bodyManager.bodiesOlderThan(inAge));
-                    if (bodyManager.bodiesOlderThan(inAge) == "") {
+                    String oldBodies = bodyManager.bodiesOlderThan(inAge);
+                    display.append("\n\nCelestial Bodies older than " + inAge + ":\n" + oldBodies);
+                    if (oldBodies.isEmpty()) {
                         display.append("none");
                     }
                 } catch (NumberFormatException nfe) {
@@ -494,7 +496,7 @@ public class UIManager {
                 } catch (NumberFormatException nfe) {
                     display.append("\n\nPlease enter valid info into text fields");
                 }
-                bodyManager.addStar(inName, mass, age, radius);
+                bodyManager.addStar(inName, space.getPointerWorldPos(), mass, age, radius);
                 break;
             case "addPlanet":
                 String orbitStar = "";
@@ -507,7 +509,7 @@ public class UIManager {
                 } catch (NumberFormatException nfe) {
                     display.append("\n\nPlease enter valid info into text fields");
                 }
-                bodyManager.addPlanet(inName, mass, age, radius, orbitStar);
+                bodyManager.addPlanet(inName, space.getPointerWorldPos(), mass, age, radius, orbitStar);
                 break;
             case "addMoon":
                 String orbitPlanet = "";
@@ -520,7 +522,7 @@ public class UIManager {
                 } catch (NumberFormatException nfe) {
                     display.append("\n\nPlease enter valid info into text fields");
                 }
-                bodyManager.addMoon(inName, mass, age, radius, orbitPlanet);
+                bodyManager.addMoon(inName, space.getPointerWorldPos(), mass, age, radius, orbitPlanet);
                 break;
             case "addAsteroid":
                 try {